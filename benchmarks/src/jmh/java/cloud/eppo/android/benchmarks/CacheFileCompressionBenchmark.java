@@ -0,0 +1,62 @@
+package cloud.eppo.android.benchmarks;
+
+import android.app.Application;
+import cloud.eppo.android.BaseCacheFile;
+import cloud.eppo.android.PrecomputedCacheFile;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Reading and writing cache files with and without GZIP compression. A compression level of -2
+ * ({@link BaseCacheFile#COMPRESSION_DISABLED}) is the raw baseline.
+ *
+ * <p>On a desktop JVM, reads after the first are served from the page cache, so these numbers
+ * isolate the CPU cost of inflating. On a device, a cold read of the smaller compressed file from
+ * flash can offset that cost; run on the target hardware to pick a level per configuration size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CacheFileCompressionBenchmark {
+
+  @Param({"100", "1000", "5000"})
+  public int flagCount;
+
+  @Param({"-2", "1", "6", "9"})
+  public int compressionLevel;
+
+  private byte[] contents;
+  private PrecomputedCacheFile cacheFile;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    contents = PrecomputedFixtures.precomputedResponse(flagCount);
+    cacheFile = new PrecomputedCacheFile(new Application(), "benchmark", compressionLevel);
+    cacheFile.writeAtomically(contents);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cacheFile.delete();
+  }
+
+  @Benchmark
+  public byte[] readBytes() throws IOException {
+    return cacheFile.readBytes();
+  }
+
+  @Benchmark
+  public void writeAtomically() throws IOException {
+    cacheFile.writeAtomically(contents);
+  }
+}
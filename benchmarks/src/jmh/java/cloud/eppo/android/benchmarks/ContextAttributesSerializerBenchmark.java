@@ -0,0 +1,51 @@
+package cloud.eppo.android.benchmarks;
+
+import cloud.eppo.android.util.ContextAttributesSerializer;
+import cloud.eppo.api.Attributes;
+import cloud.eppo.api.EppoValue;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Serialization of subject attributes into the precomputed request body format. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ContextAttributesSerializerBenchmark {
+
+  @Param({"5", "50"})
+  public int attributeCount;
+
+  private Attributes attributes;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    attributes = new Attributes();
+    for (int i = 0; i < attributeCount; i++) {
+      switch (i % 3) {
+        case 0:
+          attributes.put("numeric-" + i, EppoValue.valueOf(i * 1.5));
+          break;
+        case 1:
+          attributes.put("boolean-" + i, EppoValue.valueOf(i % 2 == 0));
+          break;
+        default:
+          attributes.put("string-" + i, EppoValue.valueOf("value-" + i));
+          break;
+      }
+    }
+  }
+
+  @Benchmark
+  public Map<String, Object> serialize() {
+    return ContextAttributesSerializer.serialize(attributes);
+  }
+}
@@ -0,0 +1,72 @@
+package cloud.eppo.android.benchmarks;
+
+import cloud.eppo.android.cache.LRUAssignmentCache;
+import cloud.eppo.cache.AssignmentCacheEntry;
+import cloud.eppo.cache.AssignmentCacheKey;
+import cloud.eppo.cache.VariationCacheValue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Assignment de-duplication through {@link LRUAssignmentCache#putIfAbsent}. {@code repeatHit}
+ * measures the common case of re-reading an already logged assignment; {@code rotatingKeys} cycles
+ * through more keys than the cache holds, so every call evicts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LRUAssignmentCacheBenchmark {
+
+  @Param({"100", "1000"})
+  public int cacheSize;
+
+  private LRUAssignmentCache cache;
+  private AssignmentCacheEntry[] entries;
+  private AssignmentCacheEntry repeatedEntry;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    cache = new LRUAssignmentCache(cacheSize);
+    entries = new AssignmentCacheEntry[cacheSize * 2];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] =
+          new AssignmentCacheEntry(
+              new AssignmentCacheKey("subject", "flag-" + i),
+              new VariationCacheValue("allocation", "variation"));
+    }
+    repeatedEntry = entries[0];
+    cache.putIfAbsent(repeatedEntry);
+  }
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+  }
+
+  @Benchmark
+  public boolean repeatHit() {
+    return cache.putIfAbsent(repeatedEntry);
+  }
+
+  @Benchmark
+  public boolean rotatingKeys(Cursor cursor) {
+    AssignmentCacheEntry entry = entries[cursor.next];
+    cursor.next = (cursor.next + 1) % entries.length;
+    return cache.putIfAbsent(entry);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean repeatHitContended() {
+    return cache.putIfAbsent(repeatedEntry);
+  }
+}
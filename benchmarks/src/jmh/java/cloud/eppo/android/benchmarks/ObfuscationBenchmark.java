@@ -0,0 +1,52 @@
+package cloud.eppo.android.benchmarks;
+
+import cloud.eppo.android.util.ObfuscationUtils;
+import cloud.eppo.android.util.SaltedMd5Hasher;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/** MD5 hashing of flag keys, as done for every precomputed lookup that misses the memo. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ObfuscationBenchmark {
+
+  private final String flagKey = "checkout-button-color-experiment";
+  private final SaltedMd5Hasher hasher = new SaltedMd5Hasher(PrecomputedFixtures.SALT);
+  private final char[] hexOut = new char[ObfuscationUtils.MD5_HEX_LENGTH];
+  private final byte[] digestOut = new byte[ObfuscationUtils.MD5_LENGTH];
+
+  @Benchmark
+  public String md5Hex() {
+    return ObfuscationUtils.md5Hex(flagKey, PrecomputedFixtures.SALT);
+  }
+
+  @Benchmark
+  public String md5HexPrefix() {
+    return ObfuscationUtils.md5HexPrefix(flagKey, null, 8);
+  }
+
+  @Benchmark
+  public char[] md5HexIntoBuffer() {
+    ObfuscationUtils.md5Hex(flagKey, PrecomputedFixtures.SALT, hexOut, 0);
+    return hexOut;
+  }
+
+  @Benchmark
+  public byte[] saltedHasherDigest() {
+    hasher.md5(flagKey, digestOut, 0);
+    return digestOut;
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String md5HexContended() {
+    return ObfuscationUtils.md5Hex(flagKey, PrecomputedFixtures.SALT);
+  }
+}
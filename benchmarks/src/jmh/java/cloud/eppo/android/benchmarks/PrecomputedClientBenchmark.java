@@ -0,0 +1,109 @@
+package cloud.eppo.android.benchmarks;
+
+import android.app.Application;
+import cloud.eppo.android.EppoPrecomputedClient;
+import cloud.eppo.android.dto.BanditResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Typed getters of {@link EppoPrecomputedClient} against configurations of several sizes. Each
+ * getter reads the flag whose type matches it; assignment logging is disabled so only the lookup
+ * path is measured. Variants suffixed {@code Contended} run with four threads sharing one client.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PrecomputedClientBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int flagCount;
+
+  private EppoPrecomputedClient client;
+  private String stringFlag;
+  private String booleanFlag;
+  private String integerFlag;
+  private String numericFlag;
+  private String jsonFlag;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    client =
+        new EppoPrecomputedClient.Builder("benchmark-api-key", new Application())
+            .subjectKey("benchmark-subject")
+            .offlineMode(true)
+            .forceReinitialize(true)
+            .assignmentCache(null)
+            .initialConfiguration(PrecomputedFixtures.precomputedResponse(flagCount))
+            .buildAndInitAsync()
+            .get();
+    // Flags cycle STRING, BOOLEAN, INTEGER, NUMERIC, JSON; pick one of each from the end of the
+    // configuration so larger configs are not favoured by insertion order.
+    int base = flagCount - 5;
+    stringFlag = PrecomputedFixtures.flagKey(base);
+    booleanFlag = PrecomputedFixtures.flagKey(base + 1);
+    integerFlag = PrecomputedFixtures.flagKey(base + 2);
+    numericFlag = PrecomputedFixtures.flagKey(base + 3);
+    jsonFlag = PrecomputedFixtures.flagKey(base + 4);
+    // Let the background index build finish before measuring steady-state reads
+    Thread.sleep(200);
+  }
+
+  @Benchmark
+  public String getStringAssignment() {
+    return client.getStringAssignment(stringFlag, "default");
+  }
+
+  @Benchmark
+  public boolean getBooleanAssignment() {
+    return client.getBooleanAssignment(booleanFlag, false);
+  }
+
+  @Benchmark
+  public int getIntegerAssignment() {
+    return client.getIntegerAssignment(integerFlag, 0);
+  }
+
+  @Benchmark
+  public double getNumericAssignment() {
+    return client.getNumericAssignment(numericFlag, 0.0);
+  }
+
+  @Benchmark
+  public JsonNode getJSONAssignment() {
+    return client.getJSONAssignment(jsonFlag, NullNode.getInstance());
+  }
+
+  @Benchmark
+  public boolean getMissingFlag() {
+    return client.getBooleanAssignment("not-in-config", false);
+  }
+
+  @Benchmark
+  public BanditResult getBanditAction() {
+    return client.getBanditAction(PrecomputedFixtures.flagKey(0), "default");
+  }
+
+  @Benchmark
+  @Threads(4)
+  public boolean getBooleanAssignmentContended() {
+    return client.getBooleanAssignment(booleanFlag, false);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getStringAssignmentContended() {
+    return client.getStringAssignment(stringFlag, "default");
+  }
+}
@@ -0,0 +1,111 @@
+package cloud.eppo.android.benchmarks;
+
+import cloud.eppo.android.util.ObfuscationUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/** Generates precomputed configuration payloads of a given size for benchmarks. */
+final class PrecomputedFixtures {
+
+  static final String SALT = "benchmark-salt";
+
+  private static final String[] TYPES = {"STRING", "BOOLEAN", "INTEGER", "NUMERIC", "JSON"};
+
+  private PrecomputedFixtures() {}
+
+  /** Flag key of the i-th generated flag; its variation type is {@link #typeOf(int)}. */
+  static String flagKey(int i) {
+    return "flag-" + i;
+  }
+
+  static String typeOf(int i) {
+    return TYPES[i % TYPES.length];
+  }
+
+  /**
+   * Builds a precomputed response with {@code flagCount} flags cycling through all variation types,
+   * and a bandit for every tenth flag.
+   */
+  static byte[] precomputedResponse(int flagCount) {
+    StringBuilder flags = new StringBuilder();
+    StringBuilder bandits = new StringBuilder();
+    for (int i = 0; i < flagCount; i++) {
+      String hashedKey = ObfuscationUtils.md5Hex(flagKey(i), SALT);
+      if (i > 0) {
+        flags.append(',');
+      }
+      flags
+          .append('"')
+          .append(hashedKey)
+          .append("\":{")
+          .append("\"allocationKey\":\"")
+          .append(encode("allocation-" + i))
+          .append("\",\"variationKey\":\"")
+          .append(encode("variation-" + i))
+          .append("\",\"variationType\":\"")
+          .append(typeOf(i))
+          .append("\",\"variationValue\":\"")
+          .append(encode(valueFor(i)))
+          .append("\",\"extraLogging\":{\"")
+          .append(encode("holdoutKey"))
+          .append("\":\"")
+          .append(encode("holdout-" + i))
+          .append("\"},\"doLog\":true}");
+      if (i % 10 == 0) {
+        if (bandits.length() > 0) {
+          bandits.append(',');
+        }
+        bandits
+            .append('"')
+            .append(hashedKey)
+            .append("\":{")
+            .append("\"banditKey\":\"")
+            .append(encode("bandit-" + i))
+            .append("\",\"action\":\"")
+            .append(encode("action-" + i))
+            .append("\",\"modelVersion\":\"")
+            .append(encode("v1"))
+            .append("\",\"actionNumericAttributes\":{\"")
+            .append(encode("price"))
+            .append("\":\"")
+            .append(encode("9.99"))
+            .append("\"},\"actionCategoricalAttributes\":{\"")
+            .append(encode("color"))
+            .append("\":\"")
+            .append(encode("blue"))
+            .append("\"},\"actionProbability\":0.5,\"optimalityGap\":0.1}");
+      }
+    }
+    String json =
+        "{\"format\":\"PRECOMPUTED\",\"obfuscated\":true,"
+            + "\"createdAt\":\"2024-01-20T12:00:00.000Z\","
+            + "\"environment\":{\"name\":\"Benchmark\"},"
+            + "\"salt\":\""
+            + SALT
+            + "\",\"flags\":{"
+            + flags
+            + "},\"bandits\":{"
+            + bandits
+            + "}}";
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String valueFor(int i) {
+    switch (typeOf(i)) {
+      case "BOOLEAN":
+        return i % 2 == 0 ? "true" : "false";
+      case "INTEGER":
+        return Integer.toString(i);
+      case "NUMERIC":
+        return Double.toString(i + 0.5);
+      case "JSON":
+        return "{\"index\":" + i + ",\"items\":[1,2,3],\"label\":\"flag-" + i + "\"}";
+      default:
+        return "value-" + i;
+    }
+  }
+
+  private static String encode(String value) {
+    return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,59 @@
+package cloud.eppo.android.benchmarks;
+
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Wire parsing and cache serialization of precomputed configurations. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PrecomputedSerializationBenchmark {
+
+  @Param({"10", "100", "1000", "5000"})
+  public int flagCount;
+
+  private byte[] payload;
+  private byte[] cachePayload;
+  private PrecomputedConfigurationResponse response;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    payload = PrecomputedFixtures.precomputedResponse(flagCount);
+    response = PrecomputedConfigurationResponse.fromBytes(payload);
+    cachePayload = response.toCacheBytes();
+  }
+
+  @Benchmark
+  public PrecomputedConfigurationResponse fromBytes() {
+    return PrecomputedConfigurationResponse.fromBytes(payload);
+  }
+
+  @Benchmark
+  public PrecomputedConfigurationResponse fromBytesLazy() {
+    return PrecomputedConfigurationResponse.fromBytes(payload, true);
+  }
+
+  @Benchmark
+  public byte[] toBytes() {
+    return response.toBytes();
+  }
+
+  @Benchmark
+  public PrecomputedConfigurationResponse fromCacheBytes() {
+    return PrecomputedConfigurationResponse.fromCacheBytes(cachePayload);
+  }
+
+  @Benchmark
+  public byte[] toCacheBytes() {
+    return response.toCacheBytes();
+  }
+}
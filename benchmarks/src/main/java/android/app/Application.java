@@ -0,0 +1,23 @@
+package android.app;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/** JVM stand-in for {@code android.app.Application} whose files dir is a temporary directory. */
+public class Application {
+
+  private final File filesDir;
+
+  public Application() {
+    try {
+      filesDir = Files.createTempDirectory("eppo-benchmarks").toFile();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public File getFilesDir() {
+    return filesDir;
+  }
+}
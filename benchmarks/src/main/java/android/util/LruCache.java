@@ -0,0 +1,31 @@
+package android.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JVM stand-in for {@code android.util.LruCache}. Like the platform class, every operation is
+ * synchronized on the cache and reads refresh recency.
+ */
+public class LruCache<K, V> {
+
+  private final LinkedHashMap<K, V> map;
+
+  public LruCache(final int maxSize) {
+    this.map =
+        new LinkedHashMap<K, V>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  public final synchronized V get(K key) {
+    return map.get(key);
+  }
+
+  public final synchronized V put(K key, V value) {
+    return map.put(key, value);
+  }
+}
@@ -0,0 +1,8 @@
+package cloud.eppo.android;
+
+/** Stand-in for the BuildConfig the Android Gradle plugin generates for the `eppo` module. */
+public final class BuildConfig {
+  public static final String EPPO_VERSION = "benchmarks";
+
+  private BuildConfig() {}
+}
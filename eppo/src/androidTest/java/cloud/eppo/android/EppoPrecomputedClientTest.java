@@ -149,6 +149,32 @@ public class EppoPrecomputedClientTest {
         .buildAndInit();
   }
 
+  @Test
+  public void testBuilderAdoptsPreloadedCacheRead() throws Exception {
+    String cacheFileNameSuffix =
+        EppoPrecomputedClient.cacheFileNameSuffix(TEST_API_KEY, TEST_SUBJECT_KEY);
+    PrecomputedConfigurationStore store =
+        new PrecomputedConfigurationStore(application, cacheFileNameSuffix);
+    store
+        .saveConfiguration(
+            store.parseConfiguration(getMockPrecomputedResponse().getBytes(StandardCharsets.UTF_8)))
+        .get();
+
+    EppoCachePreloader.preloadPrecomputed(application, TEST_API_KEY, TEST_SUBJECT_KEY).get();
+
+    EppoPrecomputedClient client =
+        new EppoPrecomputedClient.Builder(TEST_API_KEY, application)
+            .subjectKey(TEST_SUBJECT_KEY)
+            .offlineMode(true)
+            .forceReinitialize(true)
+            .buildAndInit();
+
+    assertEquals("test-string", client.getStringAssignment("string_flag", "default"));
+    // The builder adopted the preloaded store
+    assertNull(CachePreloads.takePrecomputedStore(cacheFileNameSuffix));
+    store.deleteCache();
+  }
+
   @Test
   public void testBuilderRequiresApiKey() {
     assertThrows(
@@ -194,6 +220,22 @@ public class EppoPrecomputedClientTest {
     assertEquals("default", client.getStringAssignment("bool_flag", "default"));
   }
 
+  @Test
+  public void testPrimitiveGettersReturnTypedValuesAndDefaults() {
+    EppoPrecomputedClient client = initializeClientOffline(null, null);
+
+    assertTrue(client.getBooleanAssignment("bool_flag", false));
+    assertEquals(42, client.getIntegerAssignment("int_flag", 0));
+    assertEquals(3.14159, client.getNumericAssignment("numeric_flag", 0.0), 0.00001);
+    // INTEGER flags can be read as numeric
+    assertEquals(42.0, client.getNumericAssignment("int_flag", 0.0), 0.0);
+
+    // NUMERIC flags cannot be read as integer
+    assertEquals(7, client.getIntegerAssignment("numeric_flag", 7));
+    assertTrue(client.getBooleanAssignment("missing_flag", true));
+    assertEquals(-1.5, client.getNumericAssignment("json_flag", -1.5), 0.0);
+  }
+
   @Test
   public void testAssignmentLogging() {
     AssignmentLogger mockLogger = mock(AssignmentLogger.class);
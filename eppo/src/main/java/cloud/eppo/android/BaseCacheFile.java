@@ -1,8 +1,11 @@
 package cloud.eppo.android;
 
 import android.app.Application;
+import androidx.annotation.Nullable;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -12,35 +15,317 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
-/** Base class for disk cache files. */
+/**
+ * Base class for disk cache files.
+ *
+ * <p>Contents written with {@link #writeAtomically(byte[])} go to a temporary file that is synced
+ * and then renamed over the cache file, so a process killed mid-write leaves the previous contents
+ * intact. They are followed by a footer of content length, CRC32 and a marker, which {@link
+ * #mapForRead()} and {@link #readBytes()} verify and strip. Files without the footer, written by
+ * earlier versions or through the stream and writer accessors, are returned as they are.
+ *
+ * <p>A file can be created with a GZIP compression level, in which case {@link
+ * #writeAtomically(byte[])} compresses the contents before the footer is added. Reads recognize
+ * compressed contents by the GZIP magic bytes, which neither JSON nor the binary cache format can
+ * start with, so compressed and uncompressed files load regardless of the current setting.
+ *
+ * <p>Subclasses with a schema version prefix their files with a header carrying it, ahead of any
+ * compression. A file with an older version, or without a header, is upgraded on read by the
+ * migrations registered with {@link #registerMigration}, and {@link #rewritePendingUpgrade()} then
+ * persists the upgraded contents, so a format change does not cost users their cache. Files from
+ * newer schema versions are rejected. Contents an earlier SDK version kept under another file name,
+ * registered with {@link #registerEarlierFile}, are read and carried over the same way while this
+ * file does not exist. {@link #removeOrphanedFiles()} deletes files that a subclass recognizes as
+ * left behind, such as caches named by earlier SDK versions.
+ *
+ * <p>Each instance remembers a digest of the contents it last read or wrote, so {@link
+ * #writeAtomicallyIfChanged(byte[])} can skip rewriting identical contents.
+ */
 public class BaseCacheFile {
+  /** Compression level that stores contents as they are. */
+  public static final int COMPRESSION_DISABLED = -2;
+
+  /** Schema version of files without a header. */
+  public static final int UNVERSIONED = 0;
+
+  /** Upgrades cache contents from one schema version to the next. */
+  public interface Migration {
+    byte[] migrate(byte[] contents) throws IOException;
+  }
+
+  // "ECK1"; no JSON document can end with these bytes
+  private static final int FOOTER_MARKER = 0x45434B31;
+  private static final int FOOTER_LENGTH = 12;
+  protected static final String TEMP_SUFFIX = ".tmp";
+  // "ESCH" followed by the schema version; JSON cannot start with it, nor can GZIP or the binary
+  // cache format ("EPPC")
+  private static final int HEADER_MAGIC = 0x45534348;
+  private static final int HEADER_LENGTH = 8;
+  // First two bytes of every GZIP member
+  private static final int GZIP_MAGIC_0 = 0x1f;
+  private static final int GZIP_MAGIC_1 = 0x8b;
+
   private final File cacheFile;
+  private final File tempFile;
+  private final int compressionLevel;
+  private final int schemaVersion;
+  // Migrations keyed by the version they upgrade from
+  private final Map<Integer, Migration> migrations = new HashMap<>();
+  private final AtomicLong skippedWriteCount = new AtomicLong();
+  // SHA-256 of the contents on disk as last seen by this instance, or null if unknown
+  @Nullable private volatile byte[] contentsDigest;
+  // Contents last read after migrating them from an older schema, until they are written back
+  @Nullable private volatile byte[] pendingUpgrade;
+  // File an earlier SDK version kept these contents in, and how to convert them
+  @Nullable private File earlierFile;
+  @Nullable private Migration earlierFileMigration;
 
   protected BaseCacheFile(Application application, String fileName) {
+    this(application, fileName, COMPRESSION_DISABLED);
+  }
+
+  /**
+   * @param compressionLevel {@link #COMPRESSION_DISABLED}, or a {@link Deflater} level from 0 to 9
+   *     (or {@link Deflater#DEFAULT_COMPRESSION}) used to GZIP contents written atomically
+   */
+  protected BaseCacheFile(Application application, String fileName, int compressionLevel) {
+    this(application, fileName, compressionLevel, UNVERSIONED);
+  }
+
+  /**
+   * @param compressionLevel {@link #COMPRESSION_DISABLED}, or a {@link Deflater} level from 0 to 9
+   *     (or {@link Deflater#DEFAULT_COMPRESSION}) used to GZIP contents written atomically
+   * @param schemaVersion Version of the contents' format, written in the file header; {@link
+   *     #UNVERSIONED} writes no header
+   */
+  protected BaseCacheFile(
+      Application application, String fileName, int compressionLevel, int schemaVersion) {
+    if (schemaVersion < UNVERSIONED) {
+      throw new IllegalArgumentException("Invalid schema version: " + schemaVersion);
+    }
+    if (compressionLevel != COMPRESSION_DISABLED
+        && compressionLevel != Deflater.DEFAULT_COMPRESSION
+        && (compressionLevel < Deflater.NO_COMPRESSION
+            || compressionLevel > Deflater.BEST_COMPRESSION)) {
+      throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+    }
     File filesDir = application.getFilesDir();
     cacheFile = new File(filesDir, fileName);
+    tempFile = new File(filesDir, fileName + TEMP_SUFFIX);
+    this.compressionLevel = compressionLevel;
+    this.schemaVersion = schemaVersion;
+  }
+
+  /**
+   * Registers the migration that upgrades contents from {@code fromVersion} to the next version.
+   * Files older than the current schema version are read through the chain of migrations from their
+   * version.
+   */
+  protected final void registerMigration(int fromVersion, Migration migration) {
+    if (fromVersion < UNVERSIONED || fromVersion >= schemaVersion) {
+      throw new IllegalArgumentException("No migration possible from version " + fromVersion);
+    }
+    migrations.put(fromVersion, migration);
+  }
+
+  /**
+   * Registers the file an earlier SDK version kept these contents in under another name. While this
+   * file does not exist, reads fall back to the earlier file, converting its contents to the
+   * current schema version with {@code migration}; {@link #rewritePendingUpgrade()} then writes
+   * them to this file and deletes the earlier one.
+   */
+  protected final void registerEarlierFile(String fileName, Migration migration) {
+    earlierFile = new File(cacheFile.getParentFile(), fileName);
+    earlierFileMigration = migration;
+  }
+
+  /** Returns the schema version contents are written with. */
+  public int getSchemaVersion() {
+    return schemaVersion;
+  }
+
+  /** Returns the GZIP level contents are written with, or {@link #COMPRESSION_DISABLED}. */
+  public int getCompressionLevel() {
+    return compressionLevel;
   }
 
+  /** Returns whether the file, or an earlier SDK version's file to carry over, exists. */
   public boolean exists() {
-    return cacheFile.exists();
+    return cacheFile.exists() || (earlierFile != null && earlierFile.exists());
   }
 
   /**
    * @noinspection ResultOfMethodCallIgnored
    */
   public void delete() {
+    contentsDigest = null;
+    pendingUpgrade = null;
     if (cacheFile.exists()) {
       cacheFile.delete();
     }
+    if (tempFile.exists()) {
+      tempFile.delete();
+    }
+    if (earlierFile != null && earlierFile.exists()) {
+      earlierFile.delete();
+    }
+  }
+
+  /**
+   * Replaces the file's contents in a crash-safe way: the contents and a checksum footer are
+   * written to a temporary file, synced to disk, and renamed over the cache file. Readers see
+   * either the previous contents or the new ones, never a partial write. The contents are GZIP
+   * compressed first if this file has a compression level.
+   *
+   * @noinspection ResultOfMethodCallIgnored
+   */
+  public void writeAtomically(byte[] contents) throws IOException {
+    contentsDigest = null;
+    pendingUpgrade = null;
+    byte[] header =
+        schemaVersion == UNVERSIONED
+            ? new byte[0]
+            : ByteBuffer.allocate(HEADER_LENGTH).putInt(HEADER_MAGIC).putInt(schemaVersion).array();
+    byte[] stored = compressionLevel == COMPRESSION_DISABLED ? contents : compress(contents);
+    CRC32 crc = new CRC32();
+    crc.update(header, 0, header.length);
+    crc.update(stored, 0, stored.length);
+    ByteBuffer footer = ByteBuffer.allocate(FOOTER_LENGTH);
+    footer.putInt(header.length + stored.length).putInt((int) crc.getValue()).putInt(FOOTER_MARKER);
+
+    try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+      outputStream.write(header);
+      outputStream.write(stored);
+      outputStream.write(footer.array());
+      // The data must be durable before the rename makes it visible
+      outputStream.getFD().sync();
+    } catch (IOException e) {
+      tempFile.delete();
+      throw e;
+    }
+    if (!tempFile.renameTo(cacheFile)) {
+      tempFile.delete();
+      throw new IOException("Unable to replace cache file " + cacheFile.getName());
+    }
+    contentsDigest = digest(ByteBuffer.wrap(contents));
+  }
+
+  /**
+   * Writes the contents as {@link #writeAtomically(byte[])} does, unless they are identical to the
+   * contents this instance last read from or wrote to the file, in which case the write is skipped
+   * and counted, and the file is {@link #touch() touched} instead.
+   *
+   * @return whether the file was written
+   */
+  public boolean writeAtomicallyIfChanged(byte[] contents) throws IOException {
+    byte[] lastDigest = contentsDigest;
+    if (lastDigest != null
+        && cacheFile.exists()
+        && Arrays.equals(lastDigest, digest(ByteBuffer.wrap(contents)))) {
+      skippedWriteCount.incrementAndGet();
+      touch();
+      return false;
+    }
+    writeAtomically(contents);
+    return true;
+  }
+
+  /**
+   * Sets the file's modification time to now, recording that its contents were confirmed current
+   * without rewriting them. Orphan sweeps judge staleness by the modification time, so a cache that
+   * stays in use is not removed just because its contents stopped changing.
+   *
+   * @noinspection ResultOfMethodCallIgnored
+   */
+  public void touch() {
+    if (cacheFile.exists()) {
+      cacheFile.setLastModified(System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * Writes back contents that the last read migrated from an older schema version, or carried over
+   * from an earlier SDK version's file, unless the file has been written since. The earlier file is
+   * deleted once its contents are written here. Call this off the main thread after reading,
+   * serialized with other writes to the file.
+   *
+   * @return whether the file was rewritten
+   * @noinspection ResultOfMethodCallIgnored
+   */
+  public boolean rewritePendingUpgrade() throws IOException {
+    byte[] upgraded = pendingUpgrade;
+    if (upgraded == null) {
+      return false;
+    }
+    writeAtomically(upgraded);
+    if (earlierFile != null && earlierFile.exists()) {
+      earlierFile.delete();
+    }
+    return true;
+  }
+
+  /**
+   * Deletes the files next to this one that {@link #isOrphaned} identifies as left behind. The
+   * cache file itself and its temporary file are never deleted, nor is an earlier SDK version's
+   * file whose contents are read but not yet written back.
+   *
+   * @return how many files were deleted
+   */
+  public int removeOrphanedFiles() {
+    File[] files = cacheFile.getParentFile() != null ? cacheFile.getParentFile().listFiles() : null;
+    if (files == null) {
+      return 0;
+    }
+    long now = System.currentTimeMillis();
+    int removed = 0;
+    for (File file : files) {
+      if (file.isFile()
+          && !file.equals(cacheFile)
+          && !file.equals(tempFile)
+          && !(file.equals(earlierFile) && pendingUpgrade != null)
+          && isOrphaned(file, now)
+          && file.delete()) {
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Returns whether a file in the cache directory is a leftover this cache file is responsible for,
+   * such as a file named by an earlier SDK version. Nothing is orphaned by default.
+   */
+  protected boolean isOrphaned(File file, long nowMs) {
+    return false;
+  }
+
+  /** Returns how many writes {@link #writeAtomicallyIfChanged(byte[])} skipped as unchanged. */
+  public long getSkippedWriteCount() {
+    return skippedWriteCount.get();
   }
 
   /** Useful for passing in as a writer for JSON serialization. */
   public BufferedWriter getWriter() throws IOException {
+    contentsDigest = null;
     return new BufferedWriter(new FileWriter(cacheFile));
   }
 
   public OutputStream getOutputStream() throws FileNotFoundException {
+    contentsDigest = null;
     return new FileOutputStream(cacheFile);
   }
 
@@ -48,6 +333,200 @@ public class BaseCacheFile {
     return new FileInputStream(cacheFile);
   }
 
+  /**
+   * Maps the file's contents into memory read-only, so they can be parsed without first being
+   * copied onto the heap. A checksum footer, if present, is verified and excluded from the returned
+   * buffer, as is the schema header. The mapping outlives the underlying channel. Compressed
+   * contents are inflated into a heap buffer instead, and contents from an older schema version are
+   * migrated into one.
+   *
+   * @throws IOException if the file cannot be read, fails its checksum, cannot be inflated, or
+   *     cannot be migrated to the current schema version
+   */
+  public ByteBuffer mapForRead() throws IOException {
+    if (earlierFile != null && !cacheFile.exists() && earlierFile.exists()) {
+      return readEarlierFile();
+    }
+    ByteBuffer mapped;
+    try (FileInputStream inputStream = new FileInputStream(cacheFile);
+        FileChannel channel = inputStream.getChannel()) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    ByteBuffer contents = verifyAndStripFooter(mapped);
+    int version = UNVERSIONED;
+    if (contents.remaining() >= HEADER_LENGTH
+        && contents.getInt(contents.position()) == HEADER_MAGIC) {
+      version = contents.getInt(contents.position() + 4);
+      contents.position(contents.position() + HEADER_LENGTH);
+      contents = contents.slice();
+    }
+    if (isCompressed(contents)) {
+      contents = ByteBuffer.wrap(decompress(contents));
+    }
+    if (version != schemaVersion) {
+      byte[] upgraded = migrate(contents, version);
+      pendingUpgrade = upgraded;
+      // The file still holds the old contents, so an identical save must not be skipped
+      contentsDigest = null;
+      return ByteBuffer.wrap(upgraded);
+    }
+    contentsDigest = digest(contents);
+    return contents;
+  }
+
+  /**
+   * Reads the file's contents into an array of exactly their size, with a single copy. A checksum
+   * footer, if present, is verified and excluded.
+   *
+   * @throws IOException if the file cannot be read or fails its checksum
+   */
+  public byte[] readBytes() throws IOException {
+    ByteBuffer mapped = mapForRead();
+    if (mapped.hasArray() && mapped.arrayOffset() == 0 && mapped.array().length == mapped.limit()) {
+      // Already inflated into an array of its own
+      return mapped.array();
+    }
+    byte[] bytes = new byte[mapped.remaining()];
+    mapped.get(bytes);
+    return bytes;
+  }
+
+  private ByteBuffer readEarlierFile() throws IOException {
+    byte[] contents = Files.readAllBytes(earlierFile.toPath());
+    byte[] upgraded;
+    try {
+      upgraded = earlierFileMigration.migrate(contents);
+    } catch (RuntimeException e) {
+      throw new IOException("Failed to migrate cache file " + earlierFile.getName(), e);
+    }
+    pendingUpgrade = upgraded;
+    // This file does not hold the contents yet, so an identical save must not be skipped
+    contentsDigest = null;
+    return ByteBuffer.wrap(upgraded);
+  }
+
+  private ByteBuffer verifyAndStripFooter(ByteBuffer contents) throws IOException {
+    int end = contents.limit();
+    if (end < FOOTER_LENGTH || contents.getInt(end - 4) != FOOTER_MARKER) {
+      return contents;
+    }
+    int length = contents.getInt(end - FOOTER_LENGTH);
+    int expectedCrc = contents.getInt(end - 8);
+    if (length != end - FOOTER_LENGTH) {
+      throw new IOException("Cache file " + cacheFile.getName() + " has an invalid length");
+    }
+    contents.limit(length);
+    CRC32 crc = new CRC32();
+    crc.update(contents.duplicate());
+    if ((int) crc.getValue() != expectedCrc) {
+      throw new IOException("Cache file " + cacheFile.getName() + " failed its checksum");
+    }
+    return contents;
+  }
+
+  private byte[] migrate(ByteBuffer contents, int version) throws IOException {
+    if (version > schemaVersion) {
+      throw new IOException(
+          "Cache file "
+              + cacheFile.getName()
+              + " has schema version "
+              + version
+              + ", newer than "
+              + schemaVersion);
+    }
+    byte[] migrated = new byte[contents.remaining()];
+    contents.duplicate().get(migrated);
+    for (int from = version; from < schemaVersion; from++) {
+      Migration migration = migrations.get(from);
+      if (migration == null) {
+        throw new IOException(
+            "No migration for cache file " + cacheFile.getName() + " from version " + from);
+      }
+      try {
+        migrated = migration.migrate(migrated);
+      } catch (RuntimeException e) {
+        throw new IOException(
+            "Failed to migrate cache file " + cacheFile.getName() + " from version " + from, e);
+      }
+    }
+    return migrated;
+  }
+
+  /** Returns whether the file was last modified more than {@code maxAgeMs} before {@code nowMs}. */
+  protected static boolean isOlderThan(File file, long nowMs, long maxAgeMs) {
+    return nowMs - file.lastModified() > maxAgeMs;
+  }
+
+  private byte[] compress(byte[] contents) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(contents.length / 4 + 64);
+    try (GZIPOutputStream gzip =
+        new GZIPOutputStream(compressed) {
+          {
+            def.setLevel(compressionLevel);
+          }
+        }) {
+      gzip.write(contents);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static boolean isCompressed(ByteBuffer contents) {
+    int start = contents.position();
+    return contents.remaining() >= 2
+        && (contents.get(start) & 0xff) == GZIP_MAGIC_0
+        && (contents.get(start + 1) & 0xff) == GZIP_MAGIC_1;
+  }
+
+  private byte[] decompress(ByteBuffer contents) throws IOException {
+    byte[] compressed = new byte[contents.remaining()];
+    contents.duplicate().get(compressed);
+    // The GZIP trailer ends with the uncompressed size modulo 2^32, little-endian
+    int size =
+        compressed.length < 4
+            ? -1
+            : (compressed[compressed.length - 4] & 0xff)
+                | (compressed[compressed.length - 3] & 0xff) << 8
+                | (compressed[compressed.length - 2] & 0xff) << 16
+                | (compressed[compressed.length - 1] & 0xff) << 24;
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      if (size >= 0) {
+        // Inflate straight into an array of the recorded size, checking nothing follows it
+        byte[] inflated = new byte[size];
+        int filled = 0;
+        while (filled < size) {
+          int read = gzip.read(inflated, filled, size - filled);
+          if (read == -1) {
+            break;
+          }
+          filled += read;
+        }
+        if (filled == size && gzip.read() == -1) {
+          return inflated;
+        }
+        throw new IOException("Inflated size does not match the GZIP trailer");
+      }
+      ByteArrayOutputStream inflated = new ByteArrayOutputStream(compressed.length * 4);
+      byte[] chunk = new byte[8192];
+      int read;
+      while ((read = gzip.read(chunk)) != -1) {
+        inflated.write(chunk, 0, read);
+      }
+      return inflated.toByteArray();
+    } catch (IOException e) {
+      throw new IOException("Cache file " + cacheFile.getName() + " could not be inflated", e);
+    }
+  }
+
+  private static byte[] digest(ByteBuffer contents) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(contents.duplicate());
+      return digest.digest();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
+
   /** Useful for passing in as a reader for JSON deserialization. */
   public BufferedReader getReader() throws IOException {
     return new BufferedReader(new FileReader(cacheFile));
@@ -0,0 +1,55 @@
+package cloud.eppo.android;
+
+import android.app.Application;
+import androidx.annotation.Nullable;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import cloud.eppo.api.Configuration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores whose cache reads were started ahead of client initialization by {@link
+ * EppoCachePreloader}, keyed by cache file name suffix. A client builder takes the store for its
+ * cache file and adopts it, in-flight read included, so the file is read and written through a
+ * single store; each preloaded store is adopted at most once.
+ *
+ * <p>Preloaded stores are created with the default settings. They only read the cache file until
+ * adopted, leaving schema upgrades and cleanup to the adopting {@link
+ * PrecomputedConfigurationStore#loadConfigFromCache()} call, so a store that is not adopted because
+ * the builder's settings differ never writes to the file.
+ */
+final class CachePreloads {
+
+  private static final Map<String, ConfigurationStore> configurationStores =
+      new ConcurrentHashMap<>();
+  private static final Map<String, PrecomputedConfigurationStore> precomputedStores =
+      new ConcurrentHashMap<>();
+
+  private CachePreloads() {}
+
+  static CompletableFuture<Configuration> startConfigurationLoad(
+      Application application, String cacheFileNameSuffix) {
+    return configurationStores
+        .computeIfAbsent(cacheFileNameSuffix, suffix -> new ConfigurationStore(application, suffix))
+        .preloadConfigFromCache();
+  }
+
+  static CompletableFuture<PrecomputedConfigurationResponse> startPrecomputedLoad(
+      Application application, String cacheFileNameSuffix) {
+    return precomputedStores
+        .computeIfAbsent(
+            cacheFileNameSuffix, suffix -> new PrecomputedConfigurationStore(application, suffix))
+        .preloadConfigFromCache();
+  }
+
+  /** Returns and forgets the preloaded store of the cache file with this suffix, if any. */
+  @Nullable static ConfigurationStore takeConfigurationStore(String cacheFileNameSuffix) {
+    return configurationStores.remove(cacheFileNameSuffix);
+  }
+
+  /** Returns and forgets the preloaded store of the cache file with this suffix, if any. */
+  @Nullable static PrecomputedConfigurationStore takePrecomputedStore(String cacheFileNameSuffix) {
+    return precomputedStores.remove(cacheFileNameSuffix);
+  }
+}
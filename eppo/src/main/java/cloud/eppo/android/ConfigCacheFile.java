@@ -1,15 +1,65 @@
 package cloud.eppo.android;
 
 import android.app.Application;
+import cloud.eppo.api.Configuration;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /** Disk cache file for standard flag configuration. */
 public class ConfigCacheFile extends BaseCacheFile {
 
+  /**
+   * Version 1 added the schema header to the flag configuration JSON, which is otherwise unchanged
+   * from the unversioned files before it.
+   */
+  static final int SCHEMA_VERSION = 1;
+
+  private static final String FILE_NAME_PREFIX = "eppo-sdk-config-v4-flags-";
+  // Name the flag configuration was cached under before v4 of the file name
+  private static final String V3_FILE_NAME_PREFIX = "eppo-sdk-config-v3-flags-";
+  // Caches named by SDK versions before v4 of the file name. The v3 file of the same API key is
+  // carried over when it holds a readable flag configuration; the rest are removed.
+  private static final Pattern EARLIER_FILE_NAME = Pattern.compile("eppo-sdk-config-v[0-3]-.*");
+  private static final long STALE_TEMP_FILE_MS = TimeUnit.HOURS.toMillis(1);
+
   public ConfigCacheFile(Application application, String fileNameSuffix) {
-    super(application, cacheFileName(fileNameSuffix));
+    this(application, fileNameSuffix, COMPRESSION_DISABLED);
+  }
+
+  /**
+   * @param compressionLevel GZIP level, or {@link #COMPRESSION_DISABLED} to store contents as they
+   *     are
+   */
+  public ConfigCacheFile(Application application, String fileNameSuffix, int compressionLevel) {
+    super(application, cacheFileName(fileNameSuffix), compressionLevel, SCHEMA_VERSION);
+    registerMigration(UNVERSIONED, contents -> contents);
+    registerEarlierFile(
+        V3_FILE_NAME_PREFIX + fileNameSuffix + ".json", ConfigCacheFile::requireFlagConfiguration);
+  }
+
+  /**
+   * Carries over v3 contents that parse as a flag configuration, whose JSON is stored unchanged
+   * since; anything else fails the read and is removed as orphaned afterwards.
+   */
+  private static byte[] requireFlagConfiguration(byte[] contents) {
+    new Configuration.Builder(contents).build();
+    return contents;
   }
 
   public static String cacheFileName(String suffix) {
-    return "eppo-sdk-config-v4-flags-" + suffix + ".json";
+    return FILE_NAME_PREFIX + suffix + ".json";
+  }
+
+  @Override
+  protected boolean isOrphaned(File file, long nowMs) {
+    String name = file.getName();
+    if (EARLIER_FILE_NAME.matcher(name).matches()) {
+      return true;
+    }
+    // Left behind by a write that was interrupted, for this or another API key
+    return name.startsWith(FILE_NAME_PREFIX)
+        && name.endsWith(TEMP_SUFFIX)
+        && isOlderThan(file, nowMs, STALE_TEMP_FILE_MS);
   }
 }
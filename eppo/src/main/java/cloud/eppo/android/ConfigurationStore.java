@@ -7,25 +7,58 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import cloud.eppo.IConfigurationStore;
-import cloud.eppo.android.util.Utils;
 import cloud.eppo.api.Configuration;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class ConfigurationStore implements IConfigurationStore {
 
   private static final String TAG = logTag(ConfigurationStore.class);
   private final ConfigCacheFile cacheFile;
+  private final Executor ioExecutor;
+  private final Executor cpuExecutor;
   private final Object cacheLock = new Object();
 
   // default to an empty config
   private volatile Configuration configuration = Configuration.emptyConfig();
+  private final Object cacheLoadLock = new Object();
   private CompletableFuture<Configuration> cacheLoadFuture = null;
+  private boolean cacheMaintenanceScheduled = false;
 
   public ConfigurationStore(Application application, String cacheFileNameSuffix) {
-    cacheFile = new ConfigCacheFile(application, cacheFileNameSuffix);
+    this(application, cacheFileNameSuffix, BaseCacheFile.COMPRESSION_DISABLED);
+  }
+
+  /**
+   * @param cacheCompressionLevel GZIP level for the cache file, or {@link
+   *     BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed
+   */
+  public ConfigurationStore(
+      Application application, String cacheFileNameSuffix, int cacheCompressionLevel) {
+    this(
+        application,
+        cacheFileNameSuffix,
+        cacheCompressionLevel,
+        SdkExecutors.io(),
+        SdkExecutors.cpu());
+  }
+
+  /**
+   * @param cacheCompressionLevel GZIP level for the cache file, or {@link
+   *     BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed
+   * @param ioExecutor Runs cache file reads and writes
+   * @param cpuExecutor Runs configuration serialization
+   */
+  public ConfigurationStore(
+      Application application,
+      String cacheFileNameSuffix,
+      int cacheCompressionLevel,
+      @NonNull Executor ioExecutor,
+      @NonNull Executor cpuExecutor) {
+    cacheFile = new ConfigCacheFile(application, cacheFileNameSuffix, cacheCompressionLevel);
+    this.ioExecutor = ioExecutor;
+    this.cpuExecutor = cpuExecutor;
   }
 
   @NonNull @Override
@@ -33,28 +66,90 @@ public class ConfigurationStore implements IConfigurationStore {
     return configuration;
   }
 
+  /**
+   * Loads configuration from the cache file asynchronously, then upgrades and cleans up cache files
+   * on the I/O executor. A read already started by {@link #preloadConfigFromCache()} is reused.
+   */
   public CompletableFuture<Configuration> loadConfigFromCache() {
+    synchronized (cacheLoadLock) {
+      CompletableFuture<Configuration> load = startCacheLoad();
+      if (load == cacheLoadFuture) {
+        // A read is maintained after once, however many callers share it
+        if (cacheMaintenanceScheduled) {
+          return load;
+        }
+        cacheMaintenanceScheduled = true;
+      }
+      // Upgrade and clean up once the read is done, without delaying it
+      load.whenCompleteAsync((config, error) -> maintainCacheFiles(), ioExecutor);
+      return load;
+    }
+  }
+
+  /**
+   * Starts reading the cache file without writing to it, for a store that a client builder may
+   * adopt later. Maintenance waits for {@link #loadConfigFromCache()}.
+   */
+  CompletableFuture<Configuration> preloadConfigFromCache() {
+    synchronized (cacheLoadLock) {
+      return startCacheLoad();
+    }
+  }
+
+  private CompletableFuture<Configuration> startCacheLoad() {
     if (cacheLoadFuture != null) {
       return cacheLoadFuture;
     }
     if (!cacheFile.exists()) {
       Log.d(TAG, "Not loading from cache (file does not exist)");
-
       return CompletableFuture.completedFuture(null);
     }
-    return cacheLoadFuture =
+    cacheLoadFuture =
         CompletableFuture.supplyAsync(
             () -> {
               Log.d(TAG, "Loading from cache");
               return readCacheFile();
-            });
+            },
+            ioExecutor);
+    return cacheLoadFuture;
+  }
+
+  /**
+   * Returns whether this store was created with these settings, so a client builder configured with
+   * them can adopt it.
+   */
+  boolean hasSettings(
+      int cacheCompressionLevel, @NonNull Executor ioExecutor, @NonNull Executor cpuExecutor) {
+    return cacheFile.getCompressionLevel() == cacheCompressionLevel
+        && this.ioExecutor == ioExecutor
+        && this.cpuExecutor == cpuExecutor;
+  }
+
+  /**
+   * Writes back a cache file that was migrated from an older schema version when read, and removes
+   * cache files left behind by earlier SDK versions.
+   */
+  private void maintainCacheFiles() {
+    synchronized (cacheLock) {
+      try {
+        if (cacheFile.rewritePendingUpgrade()) {
+          Log.d(TAG, "Upgraded cache file to schema version " + cacheFile.getSchemaVersion());
+        }
+      } catch (IOException e) {
+        Log.w(TAG, "Unable to upgrade cache file", e);
+      }
+    }
+    int removed = cacheFile.removeOrphanedFiles();
+    if (removed > 0) {
+      Log.d(TAG, "Removed " + removed + " orphaned cache files");
+    }
   }
 
   @Nullable protected Configuration readCacheFile() {
     synchronized (cacheLock) {
-      try (InputStream inputStream = cacheFile.getInputStream()) {
+      try {
         Log.d(TAG, "Attempting to inflate config");
-        Configuration config = new Configuration.Builder(Utils.toByteArray(inputStream)).build();
+        Configuration config = new Configuration.Builder(cacheFile.readBytes()).build();
         Log.d(TAG, "Cache load complete");
         return config;
       } catch (IOException e) {
@@ -64,23 +159,43 @@ public class ConfigurationStore implements IConfigurationStore {
     }
   }
 
+  /**
+   * Installs the configuration on the calling thread, so back-to-back saves apply in call order,
+   * then serializes it on the CPU executor and writes it to the cache file on the I/O executor
+   * unless a newer configuration has been installed by then. Serializing and writing saves can
+   * finish out of order on the executors' threads, so a superseded save must not overwrite its
+   * successor's file; the successor's own save writes it.
+   */
   @Override
   public CompletableFuture<Void> saveConfiguration(@NonNull Configuration configuration) {
-    return CompletableFuture.supplyAsync(
-        () -> {
-          synchronized (cacheLock) {
-            Log.d(TAG, "Saving configuration to cache file");
-            // We do not save bandits yet as they are not supported on mobile.
-            try (OutputStream outputStream = cacheFile.getOutputStream()) {
-              outputStream.write(configuration.serializeFlagConfigToBytes());
-              Log.d(TAG, "Updated cache file");
-              this.configuration = configuration;
-            } catch (IOException e) {
-              Log.e(TAG, "Unable write to cache config to file", e);
-              throw new RuntimeException(e);
-            }
-            return null;
-          }
-        });
+    this.configuration = configuration;
+    // We do not save bandits yet as they are not supported on mobile.
+    return CompletableFuture.supplyAsync(configuration::serializeFlagConfigToBytes, cpuExecutor)
+        .thenAcceptAsync(
+            serialized -> {
+              synchronized (cacheLock) {
+                if (this.configuration != configuration) {
+                  Log.d(TAG, "Configuration superseded; skipped cache file write");
+                  return;
+                }
+                Log.d(TAG, "Saving configuration to cache file");
+                try {
+                  if (cacheFile.writeAtomicallyIfChanged(serialized)) {
+                    Log.d(TAG, "Updated cache file");
+                  } else {
+                    Log.d(TAG, "Configuration unchanged; skipped cache file write");
+                  }
+                } catch (IOException e) {
+                  Log.e(TAG, "Unable write to cache config to file", e);
+                  throw new RuntimeException(e);
+                }
+              }
+            },
+            ioExecutor);
+  }
+
+  /** Returns how many saves skipped the disk write because the configuration was unchanged. */
+  public long getSkippedCacheWriteCount() {
+    return cacheFile.getSkippedWriteCount();
   }
 }
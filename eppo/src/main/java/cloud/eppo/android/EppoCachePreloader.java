@@ -0,0 +1,106 @@
+package cloud.eppo.android;
+
+import static cloud.eppo.android.util.Utils.logTag;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.startup.Initializer;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import cloud.eppo.api.Configuration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Starts reading the configuration cache at process start, so that disk I/O and parsing overlap
+ * with the rest of app startup instead of beginning when a client builder runs. The next {@code
+ * buildAndInitAsync} call for the same API key (and subject, for the precomputed client) adopts the
+ * store holding the in-flight read instead of issuing a second one. The store has the default
+ * settings, so a builder that sets lazy flag parsing, cache compression or executors reads the
+ * cache again with its own store instead.
+ *
+ * <p>The initializer is not registered by the SDK. To enable it, add it to the app manifest's
+ * {@code androidx.startup.InitializationProvider} and configure the API key, and optionally a
+ * subject key for the precomputed client, as application meta-data:
+ *
+ * <pre>{@code
+ * <meta-data android:name="cloud.eppo.android.preload.API_KEY" android:value="..." />
+ * <meta-data android:name="cloud.eppo.android.preload.SUBJECT_KEY" android:value="..." />
+ * }</pre>
+ *
+ * <p>Apps that only know the subject later can call {@link #preload} or {@link #preloadPrecomputed}
+ * directly as early as possible instead.
+ */
+public final class EppoCachePreloader implements Initializer<Void> {
+
+  private static final String TAG = logTag(EppoCachePreloader.class);
+  public static final String API_KEY_META_DATA = "cloud.eppo.android.preload.API_KEY";
+  public static final String SUBJECT_KEY_META_DATA = "cloud.eppo.android.preload.SUBJECT_KEY";
+
+  @Nullable @Override
+  public Void create(@NonNull Context context) {
+    Application application = (Application) context.getApplicationContext();
+    Bundle metaData = readMetaData(application);
+    String apiKey = metaData != null ? metaData.getString(API_KEY_META_DATA) : null;
+    if (apiKey == null || apiKey.isEmpty()) {
+      Log.w(TAG, "Not preloading the cache (no " + API_KEY_META_DATA + " meta-data)");
+      return null;
+    }
+    String subjectKey = metaData.getString(SUBJECT_KEY_META_DATA);
+    if (subjectKey != null && !subjectKey.isEmpty()) {
+      preloadPrecomputed(application, apiKey, subjectKey);
+    } else {
+      preload(application, apiKey);
+    }
+    return null;
+  }
+
+  @NonNull @Override
+  public List<Class<? extends Initializer<?>>> dependencies() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * Starts reading the {@link EppoClient} configuration cache for the API key in the background,
+   * unless a read is already in flight.
+   *
+   * @return the in-flight read, which completes with null if there is no cache file
+   */
+  @NonNull public static CompletableFuture<Configuration> preload(
+      @NonNull Application application, @NonNull String apiKey) {
+    return CachePreloads.startConfigurationLoad(
+        application, EppoClient.cacheFileNameSuffix(apiKey));
+  }
+
+  /**
+   * Starts reading the {@link EppoPrecomputedClient} configuration cache for the API key and
+   * subject in the background, unless a read is already in flight.
+   *
+   * @return the in-flight read, which completes with null if there is no cache file or it cannot be
+   *     read
+   */
+  @NonNull public static CompletableFuture<PrecomputedConfigurationResponse> preloadPrecomputed(
+      @NonNull Application application, @NonNull String apiKey, @NonNull String subjectKey) {
+    return CachePreloads.startPrecomputedLoad(
+        application, EppoPrecomputedClient.cacheFileNameSuffix(apiKey, subjectKey));
+  }
+
+  @Nullable private static Bundle readMetaData(Application application) {
+    try {
+      ApplicationInfo info =
+          application
+              .getPackageManager()
+              .getApplicationInfo(application.getPackageName(), PackageManager.GET_META_DATA);
+      return info.metaData;
+    } catch (PackageManager.NameNotFoundException e) {
+      Log.w(TAG, "Unable to read application meta-data", e);
+      return null;
+    }
+  }
+}
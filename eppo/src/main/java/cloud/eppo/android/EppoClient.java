@@ -13,6 +13,8 @@ import cloud.eppo.android.cache.LRUAssignmentCache;
 import cloud.eppo.android.exceptions.MissingApiKeyException;
 import cloud.eppo.android.exceptions.MissingApplicationException;
 import cloud.eppo.android.exceptions.NotInitializedException;
+import cloud.eppo.android.logging.BatchAssignmentLogger;
+import cloud.eppo.android.logging.BatchingAssignmentLogger;
 import cloud.eppo.api.Attributes;
 import cloud.eppo.api.Configuration;
 import cloud.eppo.api.EppoValue;
@@ -22,6 +24,7 @@ import cloud.eppo.ufc.dto.VariationType;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -33,6 +36,7 @@ public class EppoClient extends BaseEppoClient {
   private static final long DEFAULT_JITTER_INTERVAL_RATIO = 10;
 
   private long pollingIntervalMs, pollingJitterMs;
+  @Nullable private final AssignmentLogger assignmentLogger;
 
   @Nullable private static EppoClient instance;
 
@@ -63,6 +67,7 @@ public class EppoClient extends BaseEppoClient {
         initialConfiguration,
         assignmentCache,
         null);
+    this.assignmentLogger = assignmentLogger;
   }
 
   /**
@@ -131,6 +136,11 @@ public class EppoClient extends BaseEppoClient {
     return super.loadConfigurationAsync();
   }
 
+  /** Suffix of the cache file name for the API key; caches are kept per API key. */
+  static String cacheFileNameSuffix(String apiKey) {
+    return safeCacheKey(apiKey);
+  }
+
   public static class Builder {
     private String host;
     private String apiBaseUrl;
@@ -145,6 +155,9 @@ public class EppoClient extends BaseEppoClient {
     private CompletableFuture<Configuration> initialConfiguration;
     private boolean ignoreCachedConfiguration = false;
     private boolean pollingEnabled = false;
+    private int cacheCompressionLevel = BaseCacheFile.COMPRESSION_DISABLED;
+    private Executor ioExecutor = SdkExecutors.io();
+    private Executor cpuExecutor = SdkExecutors.cpu();
     private long pollingIntervalMs = DEFAULT_POLLING_INTERVAL_MS;
 
     /**
@@ -177,6 +190,16 @@ public class EppoClient extends BaseEppoClient {
       return this;
     }
 
+    /**
+     * Delivers assignments to the given logger in batches, using the default batch size and latency
+     * of {@link BatchingAssignmentLogger}. Replaces any logger set with {@link #assignmentLogger};
+     * use {@link EppoClient#flushLogs()} to send a partial batch early.
+     */
+    public Builder batchAssignmentLogger(@NonNull BatchAssignmentLogger batchAssignmentLogger) {
+      this.assignmentLogger = new BatchingAssignmentLogger(batchAssignmentLogger);
+      return this;
+    }
+
     public Builder ignoreCachedConfiguration(boolean ignoreCache) {
       this.ignoreCachedConfiguration = ignoreCache;
       return this;
@@ -225,6 +248,35 @@ public class EppoClient extends BaseEppoClient {
       return this;
     }
 
+    /**
+     * Sets the GZIP level (0-9) for the configuration cache file, or {@link
+     * BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed. Compression shrinks the file
+     * severalfold at the cost of inflating it on load; files written with either setting remain
+     * readable. Ignored when a {@link #configStore} is provided. Default is disabled.
+     */
+    public Builder cacheCompressionLevel(int cacheCompressionLevel) {
+      this.cacheCompressionLevel = cacheCompressionLevel;
+      return this;
+    }
+
+    /**
+     * Sets the executor for cache file reads and writes. Defaults to a small pool of background
+     * priority threads owned by the SDK. Ignored when a {@link #configStore} is provided.
+     */
+    public Builder ioExecutor(@NonNull Executor ioExecutor) {
+      this.ioExecutor = ioExecutor;
+      return this;
+    }
+
+    /**
+     * Sets the executor for configuration serialization. Defaults to a small pool of background
+     * priority threads owned by the SDK. Ignored when a {@link #configStore} is provided.
+     */
+    public Builder cpuExecutor(@NonNull Executor cpuExecutor) {
+      this.cpuExecutor = cpuExecutor;
+      return this;
+    }
+
     /**
      * Sets whether the client should periodically check for updated configuration. Used in
      * conjunction with `pollingIntervalMs` default 60000 and `pollingJitterMs` default 600.
@@ -286,8 +338,21 @@ public class EppoClient extends BaseEppoClient {
       // Get caching from config store
       if (configStore == null) {
         // Cache at a per-API key level (useful for development)
-        String cacheFileNameSuffix = safeCacheKey(apiKey);
-        configStore = new ConfigurationStore(application, cacheFileNameSuffix);
+        String cacheFileNameSuffix = cacheFileNameSuffix(apiKey);
+        // A store preloaded by EppoCachePreloader is adopted with its in-flight read, so the file
+        // is not read twice nor written by two stores
+        ConfigurationStore preloaded = CachePreloads.takeConfigurationStore(cacheFileNameSuffix);
+        if (preloaded != null
+            && preloaded.hasSettings(cacheCompressionLevel, ioExecutor, cpuExecutor)) {
+          configStore = preloaded;
+        } else {
+          if (preloaded != null) {
+            Log.d(TAG, "Not adopting the preloaded cache read (store settings differ)");
+          }
+          configStore =
+              new ConfigurationStore(
+                  application, cacheFileNameSuffix, cacheCompressionLevel, ioExecutor, cpuExecutor);
+        }
       }
 
       // If the initial config was not set, use the ConfigurationStore's cache as the initial
@@ -414,6 +479,17 @@ public class EppoClient extends BaseEppoClient {
     super.stopPolling();
   }
 
+  /**
+   * Sends assignments held by a batching assignment logger without waiting for the batch to fill,
+   * e.g. when the app moves to the background. Completes immediately if the logger does not batch.
+   */
+  public CompletableFuture<Void> flushLogs() {
+    if (assignmentLogger instanceof BatchingAssignmentLogger) {
+      return ((BatchingAssignmentLogger) assignmentLogger).flush();
+    }
+    return CompletableFuture.completedFuture(null);
+  }
+
   public void resumePolling() {
     if (pollingIntervalMs <= 0) {
       Log.w(
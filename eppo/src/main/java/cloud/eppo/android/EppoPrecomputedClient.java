@@ -9,13 +9,19 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import cloud.eppo.android.cache.LRUAssignmentCache;
 import cloud.eppo.android.dto.BanditResult;
+import cloud.eppo.android.dto.DecodedPrecomputedFlag;
 import cloud.eppo.android.dto.PrecomputedBandit;
+import cloud.eppo.android.dto.PrecomputedConfigurationDelta;
 import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
-import cloud.eppo.android.dto.PrecomputedFlag;
 import cloud.eppo.android.exceptions.MissingApiKeyException;
 import cloud.eppo.android.exceptions.MissingApplicationException;
 import cloud.eppo.android.exceptions.MissingSubjectKeyException;
 import cloud.eppo.android.exceptions.NotInitializedException;
+import cloud.eppo.android.logging.AsyncLogDispatcher;
+import cloud.eppo.android.logging.BatchAssignmentLogger;
+import cloud.eppo.android.logging.BatchBanditLogger;
+import cloud.eppo.android.logging.BatchingAssignmentLogger;
+import cloud.eppo.android.logging.BatchingBanditLogger;
 import cloud.eppo.android.util.ContextAttributesSerializer;
 import cloud.eppo.android.util.ObfuscationUtils;
 import cloud.eppo.android.util.Utils;
@@ -30,18 +36,24 @@ import cloud.eppo.logging.Assignment;
 import cloud.eppo.logging.AssignmentLogger;
 import cloud.eppo.logging.BanditAssignment;
 import cloud.eppo.logging.BanditLogger;
+import cloud.eppo.ufc.dto.VariationType;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
@@ -67,6 +79,7 @@ public class EppoPrecomputedClient {
   private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
   private static final ObjectMapper objectMapper = new ObjectMapper();
   private static final String NO_ACTION_CACHE_KEY = "__eppo_no_action";
+  private static final int HTTP_NOT_MODIFIED = 304;
 
   @Nullable private static EppoPrecomputedClient instance;
 
@@ -76,18 +89,24 @@ public class EppoPrecomputedClient {
   @Nullable private final Map<String, Map<String, Attributes>> banditActions;
   @Nullable private final AssignmentLogger assignmentLogger;
   @Nullable private final BanditLogger banditLogger;
+  @Nullable private final AsyncLogDispatcher logDispatcher;
   @Nullable private final IAssignmentCache assignmentCache;
   @Nullable private final IAssignmentCache banditCache;
   private final PrecomputedConfigurationStore configurationStore;
   private final boolean isGracefulMode;
   private final String baseUrl;
   private final OkHttpClient httpClient;
+  private final Executor cpuExecutor;
+  private final boolean deltaUpdates;
 
   private volatile long pollingIntervalMs;
   private volatile long pollingJitterMs;
   @Nullable private ScheduledExecutorService poller;
   @Nullable private ScheduledFuture<?> pollFuture;
   private final AtomicBoolean isPolling = new AtomicBoolean(false);
+  // Validators of the last fetched payload, used to skip work when the server has nothing new
+  @Nullable private volatile FetchedPayload lastFetchedPayload;
+  private final AtomicLong unchangedFetchCount = new AtomicLong();
 
   private EppoPrecomputedClient(
       String apiKey,
@@ -96,24 +115,30 @@ public class EppoPrecomputedClient {
       @Nullable Map<String, Map<String, Attributes>> banditActions,
       @Nullable AssignmentLogger assignmentLogger,
       @Nullable BanditLogger banditLogger,
+      @Nullable AsyncLogDispatcher logDispatcher,
       @Nullable IAssignmentCache assignmentCache,
       @Nullable IAssignmentCache banditCache,
       PrecomputedConfigurationStore configurationStore,
       boolean isGracefulMode,
       String baseUrl,
-      OkHttpClient httpClient) {
+      OkHttpClient httpClient,
+      Executor cpuExecutor,
+      boolean deltaUpdates) {
     this.apiKey = apiKey;
     this.subjectKey = subjectKey;
     this.subjectAttributes = subjectAttributes;
     this.banditActions = banditActions;
     this.assignmentLogger = assignmentLogger;
     this.banditLogger = banditLogger;
+    this.logDispatcher = logDispatcher;
     this.assignmentCache = assignmentCache;
     this.banditCache = banditCache;
     this.configurationStore = configurationStore;
     this.isGracefulMode = isGracefulMode;
     this.baseUrl = baseUrl;
     this.httpClient = httpClient;
+    this.cpuExecutor = cpuExecutor;
+    this.deltaUpdates = deltaUpdates;
   }
 
   /**
@@ -139,8 +164,11 @@ public class EppoPrecomputedClient {
    */
   public String getStringAssignment(String flagKey, String defaultValue) {
     try {
-      Object result = getPrecomputedAssignment(flagKey, defaultValue, "STRING");
-      return result != null ? result.toString() : defaultValue;
+      DecodedPrecomputedFlag flag = resolveAssignment(flagKey, VariationType.STRING);
+      if (flag == null || flag.getStringValue() == null) {
+        return defaultValue;
+      }
+      return flag.getStringValue();
     } catch (Exception e) {
       return handleException(e, defaultValue);
     }
@@ -155,11 +183,11 @@ public class EppoPrecomputedClient {
    */
   public boolean getBooleanAssignment(String flagKey, boolean defaultValue) {
     try {
-      Object result = getPrecomputedAssignment(flagKey, defaultValue, "BOOLEAN");
-      if (result instanceof Boolean) {
-        return (Boolean) result;
+      DecodedPrecomputedFlag flag = resolveAssignment(flagKey, VariationType.BOOLEAN);
+      if (flag == null) {
+        return defaultValue;
       }
-      return defaultValue;
+      return flag.getBooleanValue();
     } catch (Exception e) {
       return handleException(e, defaultValue);
     }
@@ -174,11 +202,15 @@ public class EppoPrecomputedClient {
    */
   public int getIntegerAssignment(String flagKey, int defaultValue) {
     try {
-      Object result = getPrecomputedAssignment(flagKey, defaultValue, "INTEGER");
-      if (result instanceof Number) {
-        return ((Number) result).intValue();
+      DecodedPrecomputedFlag flag = resolveAssignment(flagKey, VariationType.INTEGER);
+      if (flag == null) {
+        return defaultValue;
+      }
+      if (!flag.isValueParsed()) {
+        Log.w(TAG, "Failed to parse integer value: " + flag.getStringValue());
+        return defaultValue;
       }
-      return defaultValue;
+      return flag.getIntValue();
     } catch (Exception e) {
       return handleException(e, defaultValue);
     }
@@ -193,11 +225,16 @@ public class EppoPrecomputedClient {
    */
   public double getNumericAssignment(String flagKey, double defaultValue) {
     try {
-      Object result = getPrecomputedAssignment(flagKey, defaultValue, "NUMERIC");
-      if (result instanceof Number) {
-        return ((Number) result).doubleValue();
+      DecodedPrecomputedFlag flag = resolveAssignment(flagKey, VariationType.NUMERIC);
+      if (flag == null) {
+        return defaultValue;
       }
-      return defaultValue;
+      if (!flag.isValueParsed()) {
+        Log.w(TAG, "Failed to parse numeric value: " + flag.getStringValue());
+        return defaultValue;
+      }
+      // INTEGER flags are accepted here and carry their value in the double slot too
+      return flag.getDoubleValue();
     } catch (Exception e) {
       return handleException(e, defaultValue);
     }
@@ -212,11 +249,16 @@ public class EppoPrecomputedClient {
    */
   public JsonNode getJSONAssignment(String flagKey, JsonNode defaultValue) {
     try {
-      Object result = getPrecomputedAssignment(flagKey, defaultValue, "JSON");
-      if (result instanceof JsonNode) {
-        return (JsonNode) result;
+      DecodedPrecomputedFlag flag = resolveAssignment(flagKey, VariationType.JSON);
+      if (flag == null) {
+        return defaultValue;
+      }
+      JsonNode jsonValue = flag.getJsonValue();
+      if (jsonValue == null) {
+        Log.w(TAG, "Failed to parse JSON value: " + flag.getStringValue());
+        return defaultValue;
       }
-      return defaultValue;
+      return jsonValue;
     } catch (Exception e) {
       return handleException(e, defaultValue);
     }
@@ -239,25 +281,28 @@ public class EppoPrecomputedClient {
 
   // Internal assignment logic
 
-  private Object getPrecomputedAssignment(
-      String flagKey, Object defaultValue, String expectedType) {
+  /**
+   * Looks up the flag, checks its type and logs the assignment. Returns null when the caller should
+   * fall back to its default value. Typed getters read the value straight from the returned flag,
+   * so neither defaults nor results are boxed.
+   */
+  @Nullable private DecodedPrecomputedFlag resolveAssignment(String flagKey, VariationType expectedType) {
     if (flagKey == null || flagKey.isEmpty()) {
       Log.w(TAG, "Invalid argument: flagKey cannot be blank");
-      return defaultValue;
+      return null;
     }
 
-    String salt = configurationStore.getSalt();
-    if (salt == null) {
+    PrecomputedConfigurationStore.HashedKey hashedKey = configurationStore.lookupHashedKey(flagKey);
+    if (hashedKey == null) {
       Log.w(TAG, "Missing salt for flag store");
-      return defaultValue;
+      return null;
     }
 
-    String hashedKey = ObfuscationUtils.md5Hex(flagKey, salt);
-    PrecomputedFlag flag = configurationStore.getFlag(hashedKey);
+    DecodedPrecomputedFlag flag = configurationStore.getDecodedFlag(hashedKey);
 
     if (flag == null) {
       Log.d(TAG, "No assigned variation because flag not found: " + flagKey);
-      return defaultValue;
+      return null;
     }
 
     // Check type match
@@ -270,36 +315,30 @@ public class EppoPrecomputedClient {
               + expectedType
               + ", got "
               + flag.getVariationType());
-      return defaultValue;
+      return null;
     }
 
-    // Decode the value
-    Object decodedValue =
-        decodeValue(flag.getVariationValue(), flag.getVariationType(), defaultValue);
-
     // Log assignment if needed
     if (flag.isDoLog() && assignmentLogger != null) {
-      String decodedAllocationKey =
-          flag.getAllocationKey() != null ? Utils.base64Decode(flag.getAllocationKey()) : null;
-      String decodedVariationKey =
-          flag.getVariationKey() != null ? Utils.base64Decode(flag.getVariationKey()) : null;
+      String allocationKey = flag.getAllocationKey();
+      String variationKey = flag.getVariationKey();
 
       // Check assignment cache for deduplication
       boolean shouldLog = true;
-      if (assignmentCache != null && decodedAllocationKey != null && decodedVariationKey != null) {
+      if (assignmentCache != null && allocationKey != null && variationKey != null) {
         AssignmentCacheEntry cacheEntry =
             new AssignmentCacheEntry(
                 new AssignmentCacheKey(subjectKey, flagKey),
-                new VariationCacheValue(decodedAllocationKey, decodedVariationKey));
+                new VariationCacheValue(allocationKey, variationKey));
         shouldLog = assignmentCache.putIfAbsent(cacheEntry);
       }
 
       if (shouldLog) {
-        logAssignment(flagKey, decodedAllocationKey, decodedVariationKey, flag.getExtraLogging());
+        logAssignment(flagKey, allocationKey, variationKey, flag.getExtraLogging());
       }
     }
 
-    return decodedValue;
+    return flag;
   }
 
   private BanditResult getPrecomputedBanditAction(String flagKey, String defaultValue) {
@@ -308,13 +347,12 @@ public class EppoPrecomputedClient {
       return new BanditResult(defaultValue, null);
     }
 
-    String salt = configurationStore.getSalt();
-    if (salt == null) {
+    PrecomputedConfigurationStore.HashedKey hashedKey = configurationStore.lookupHashedKey(flagKey);
+    if (hashedKey == null) {
       Log.w(TAG, "Missing salt for bandit store");
       return new BanditResult(defaultValue, null);
     }
 
-    String hashedKey = ObfuscationUtils.md5Hex(flagKey, salt);
     PrecomputedBandit bandit = configurationStore.getBandit(hashedKey);
 
     if (bandit == null) {
@@ -385,49 +423,12 @@ public class EppoPrecomputedClient {
     return new BanditResult(assignedVariation, decodedAction);
   }
 
-  private boolean checkTypeMatch(String expected, String actual) {
-    if (expected.equalsIgnoreCase(actual)) {
+  private boolean checkTypeMatch(VariationType expected, @Nullable VariationType actual) {
+    if (expected == actual) {
       return true;
     }
     // Integer is compatible with numeric
-    if ("NUMERIC".equalsIgnoreCase(expected) && "INTEGER".equalsIgnoreCase(actual)) {
-      return true;
-    }
-    return false;
-  }
-
-  private Object decodeValue(String encodedValue, String variationType, Object defaultValue) {
-    String decoded = Utils.base64Decode(encodedValue);
-
-    switch (variationType.toUpperCase()) {
-      case "STRING":
-        return decoded;
-      case "BOOLEAN":
-        return "true".equalsIgnoreCase(decoded);
-      case "INTEGER":
-        try {
-          return Integer.parseInt(decoded);
-        } catch (NumberFormatException e) {
-          Log.w(TAG, "Failed to parse integer value: " + decoded);
-          return defaultValue;
-        }
-      case "NUMERIC":
-        try {
-          return Double.parseDouble(decoded);
-        } catch (NumberFormatException e) {
-          Log.w(TAG, "Failed to parse numeric value: " + decoded);
-          return defaultValue;
-        }
-      case "JSON":
-        try {
-          return objectMapper.readTree(decoded);
-        } catch (Exception e) {
-          Log.w(TAG, "Failed to parse JSON value: " + decoded);
-          return defaultValue;
-        }
-      default:
-        return decoded;
-    }
+    return expected == VariationType.NUMERIC && actual == VariationType.INTEGER;
   }
 
   // Logging methods
@@ -436,20 +437,15 @@ public class EppoPrecomputedClient {
       String flagKey,
       @Nullable String allocationKey,
       @Nullable String variationKey,
-      @Nullable Map<String, String> extraLogging) {
+      Map<String, String> extraLogging) {
     if (assignmentLogger == null) {
       return;
     }
 
     String experiment = allocationKey != null ? flagKey + "-" + allocationKey : null;
 
-    Map<String, String> decodedExtraLogging = new HashMap<>();
-    if (extraLogging != null) {
-      for (Map.Entry<String, String> entry : extraLogging.entrySet()) {
-        decodedExtraLogging.put(
-            Utils.base64Decode(entry.getKey()), Utils.base64Decode(entry.getValue()));
-      }
-    }
+    // Copied so loggers cannot mutate the decoded flag shared across reads
+    Map<String, String> decodedExtraLogging = new HashMap<>(extraLogging);
 
     Map<String, String> metaData = buildMetaData();
 
@@ -464,11 +460,15 @@ public class EppoPrecomputedClient {
             decodedExtraLogging,
             metaData);
 
-    try {
-      assignmentLogger.logAssignment(assignment);
-    } catch (Exception e) {
-      Log.e(TAG, "Failed to log assignment", e);
-    }
+    AssignmentLogger logger = assignmentLogger;
+    deliverLogEvent(
+        () -> {
+          try {
+            logger.logAssignment(assignment);
+          } catch (Exception e) {
+            Log.e(TAG, "Failed to log assignment", e);
+          }
+        });
   }
 
   private void logBanditAction(
@@ -517,10 +517,23 @@ public class EppoPrecomputedClient {
             actionCategoricalAttrs,
             metaData);
 
-    try {
-      banditLogger.logBanditAssignment(banditAssignment);
-    } catch (Exception e) {
-      Log.e(TAG, "Failed to log bandit assignment", e);
+    BanditLogger logger = banditLogger;
+    deliverLogEvent(
+        () -> {
+          try {
+            logger.logBanditAssignment(banditAssignment);
+          } catch (Exception e) {
+            Log.e(TAG, "Failed to log bandit assignment", e);
+          }
+        });
+  }
+
+  /** Hands a logging callback to the async dispatcher if one is configured, else runs it now. */
+  private void deliverLogEvent(Runnable event) {
+    if (logDispatcher != null) {
+      logDispatcher.dispatch(event);
+    } else {
+      event.run();
     }
   }
 
@@ -532,6 +545,22 @@ public class EppoPrecomputedClient {
     return metaData;
   }
 
+  /**
+   * Sends assignment and bandit events held by batching loggers without waiting for their batches
+   * to fill, e.g. when the app moves to the background. Completes immediately if no logger batches.
+   */
+  public CompletableFuture<Void> flushLogs() {
+    CompletableFuture<Void> assignments =
+        assignmentLogger instanceof BatchingAssignmentLogger
+            ? ((BatchingAssignmentLogger) assignmentLogger).flush()
+            : CompletableFuture.completedFuture(null);
+    CompletableFuture<Void> banditActions =
+        banditLogger instanceof BatchingBanditLogger
+            ? ((BatchingBanditLogger) banditLogger).flush()
+            : CompletableFuture.completedFuture(null);
+    return CompletableFuture.allOf(assignments, banditActions);
+  }
+
   // Error handling
 
   private <T> T handleException(Exception e, T defaultValue) {
@@ -556,21 +585,37 @@ public class EppoPrecomputedClient {
     }
   }
 
-  /** Fetches precomputed flags from the server asynchronously. */
+  /**
+   * Fetches precomputed flags from the server asynchronously. The ETag of the last response is sent
+   * as {@code If-None-Match}; when the server answers 304 Not Modified, or returns a payload
+   * identical to the last one, the installed configuration is kept and nothing is saved. Unless the
+   * store parses lazily, the response is parsed on the HTTP callback thread as it downloads,
+   * without buffering the body as a whole. With delta updates enabled, a delta response is merged
+   * into the installed configuration; if it no longer applies, the full configuration is fetched
+   * instead.
+   */
   public CompletableFuture<Void> fetchPrecomputedFlagsAsync() {
+    return fetchPrecomputedFlagsAsync(deltaUpdates);
+  }
+
+  private CompletableFuture<Void> fetchPrecomputedFlagsAsync(boolean requestDelta) {
     CompletableFuture<Void> future = new CompletableFuture<>();
 
     try {
       String url = buildRequestUrl();
-      String requestBody = buildRequestBody();
+      String requestBody =
+          buildRequestBody(requestDelta ? configurationStore.getConfiguration() : null);
 
       Log.d(TAG, "Fetching precomputed flags from: " + baseUrl + ASSIGNMENTS_ENDPOINT);
 
-      Request request =
-          new Request.Builder()
-              .url(url)
-              .post(RequestBody.create(requestBody, JSON_MEDIA_TYPE))
-              .build();
+      Request.Builder requestBuilder =
+          new Request.Builder().url(url).post(RequestBody.create(requestBody, JSON_MEDIA_TYPE));
+      FetchedPayload lastFetched = currentFetchedPayload();
+      String sentEtag = lastFetched != null ? lastFetched.etag : null;
+      if (sentEtag != null) {
+        requestBuilder.header("If-None-Match", sentEtag);
+      }
+      Request request = requestBuilder.build();
 
       httpClient
           .newCall(request)
@@ -585,6 +630,14 @@ public class EppoPrecomputedClient {
                 @Override
                 public void onResponse(@NonNull Call call, @NonNull Response response) {
                   try (ResponseBody body = response.body()) {
+                    if (response.code() == HTTP_NOT_MODIFIED && sentEtag != null) {
+                      unchangedFetchCount.incrementAndGet();
+                      configurationStore.confirmCachedConfiguration();
+                      Log.d(TAG, "Precomputed flags not modified; keeping current configuration");
+                      future.complete(null);
+                      return;
+                    }
+
                     if (!response.isSuccessful()) {
                       String responseText = body != null ? body.string() : "(no body)";
                       String errorMsg = "HTTP error: " + response.code() + " - " + responseText;
@@ -598,14 +651,48 @@ public class EppoPrecomputedClient {
                       return;
                     }
 
-                    byte[] bytes = body.bytes();
-                    PrecomputedConfigurationResponse config =
-                        PrecomputedConfigurationResponse.fromBytes(bytes);
+                    String etag = response.header("ETag");
+                    byte[] digest;
+                    CompletableFuture<PrecomputedConfigurationResponse> installed;
+                    if (configurationStore.isLazyParsing()) {
+                      // Lazy configurations retain the payload, so it is buffered as a whole
+                      byte[] bytes = body.bytes();
+                      digest = sha256(bytes);
+                      if (recordIfUnchanged(etag, digest)) {
+                        future.complete(null);
+                        return;
+                      }
+                      // Parse off the HTTP dispatcher thread so it can move on to other calls
+                      installed =
+                          CompletableFuture.supplyAsync(
+                                  () -> configurationStore.parseConfiguration(bytes), cpuExecutor)
+                              .thenCompose(EppoPrecomputedClient.this::installFetchedConfiguration);
+                    } else {
+                      // Parse on this callback thread while the body downloads, so the payload is
+                      // never buffered as a whole
+                      PrecomputedConfigurationStore.StreamedConfiguration streamed =
+                          configurationStore.parseStreamedConfiguration(body.byteStream());
+                      digest = streamed.digest;
+                      if (recordIfUnchanged(etag, digest)) {
+                        future.complete(null);
+                        return;
+                      }
+                      installed = installFetchedConfiguration(streamed.configuration);
+                    }
 
-                    configurationStore
-                        .saveConfiguration(config)
-                        .thenRun(
-                            () -> {
+                    installed
+                        .thenCompose(
+                            config -> {
+                              if (config == null && requestDelta) {
+                                Log.d(TAG, "Delta does not apply; fetching full configuration");
+                                return fetchPrecomputedFlagsAsync(false);
+                              }
+                              if (config == null) {
+                                throw new IllegalStateException(
+                                    "Received a delta for a configuration the client does not"
+                                        + " have");
+                              }
+                              lastFetchedPayload = new FetchedPayload(etag, digest, config);
                               Log.d(
                                   TAG,
                                   "Successfully fetched precomputed flags: "
@@ -613,12 +700,15 @@ public class EppoPrecomputedClient {
                                       + " flags, "
                                       + config.getBandits().size()
                                       + " bandits");
-                              future.complete(null);
+                              return CompletableFuture.<Void>completedFuture(null);
                             })
-                        .exceptionally(
-                            ex -> {
-                              future.completeExceptionally(ex);
-                              return null;
+                        .whenComplete(
+                            (ignored, ex) -> {
+                              if (ex != null) {
+                                future.completeExceptionally(ex);
+                              } else {
+                                future.complete(null);
+                              }
                             });
                   } catch (Exception e) {
                     Log.e(TAG, "Error processing response", e);
@@ -633,6 +723,79 @@ public class EppoPrecomputedClient {
     return future;
   }
 
+  /**
+   * Installs and saves a fetched configuration, merging it into the installed one if it is a delta.
+   *
+   * @return future completing with the installed configuration, or with null if a delta does not
+   *     apply to the installed configuration
+   */
+  private CompletableFuture<PrecomputedConfigurationResponse> installFetchedConfiguration(
+      PrecomputedConfigurationResponse fetched) {
+    if (fetched instanceof PrecomputedConfigurationDelta) {
+      return configurationStore.saveDelta((PrecomputedConfigurationDelta) fetched);
+    }
+    return configurationStore.saveConfiguration(fetched).thenApply(saved -> fetched);
+  }
+
+  /**
+   * Keeps the installed configuration if a fetched payload is identical to the one it came from.
+   *
+   * @return whether the payload was unchanged
+   */
+  private boolean recordIfUnchanged(@Nullable String etag, byte[] digest) {
+    FetchedPayload current = currentFetchedPayload();
+    if (current == null || !Arrays.equals(current.digest, digest)) {
+      return false;
+    }
+    // Remember a validator the server may have started sending
+    lastFetchedPayload = new FetchedPayload(etag, digest, current.configuration);
+    unchangedFetchCount.incrementAndGet();
+    configurationStore.confirmCachedConfiguration();
+    Log.d(TAG, "Precomputed flags unchanged; keeping current configuration");
+    return true;
+  }
+
+  /**
+   * Returns how many fetches found the configuration unchanged, through a 304 response or an
+   * identical payload, and skipped installing and saving it.
+   */
+  public long getUnchangedFetchCount() {
+    return unchangedFetchCount.get();
+  }
+
+  /**
+   * Returns the last fetched payload if its configuration is still the installed one, so that its
+   * validators describe what the client is serving.
+   */
+  @Nullable private FetchedPayload currentFetchedPayload() {
+    FetchedPayload fetched = lastFetchedPayload;
+    return fetched != null && fetched.configuration == configurationStore.getConfiguration()
+        ? fetched
+        : null;
+  }
+
+  private static byte[] sha256(byte[] bytes) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(bytes);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
+
+  /** Validators of a fetched payload and the configuration parsed from it. */
+  private static final class FetchedPayload {
+    @Nullable final String etag;
+    final byte[] digest;
+    final PrecomputedConfigurationResponse configuration;
+
+    FetchedPayload(
+        @Nullable String etag, byte[] digest, PrecomputedConfigurationResponse configuration) {
+      this.etag = etag;
+      this.digest = digest;
+      this.configuration = configuration;
+    }
+  }
+
   private String buildRequestUrl() {
     return baseUrl
         + ASSIGNMENTS_ENDPOINT
@@ -643,10 +806,17 @@ public class EppoPrecomputedClient {
         + "&sdkName=android";
   }
 
-  private String buildRequestBody() throws Exception {
+  private String buildRequestBody(@Nullable PrecomputedConfigurationResponse deltaBase)
+      throws Exception {
     Map<String, Object> body = new HashMap<>();
     body.put("subject_key", subjectKey);
     body.put("subject_attributes", ContextAttributesSerializer.serialize(subjectAttributes));
+    if (deltaBase != null
+        && deltaBase.getCreatedAt() != null
+        && !deltaBase.getCreatedAt().isEmpty()) {
+      // Lets the server answer with only what changed since the configuration the client has
+      body.put("base_created_at", deltaBase.getCreatedAt());
+    }
 
     if (banditActions != null && !banditActions.isEmpty()) {
       // Transform banditActions to match the expected wire format with numericAttributes and
@@ -751,6 +921,16 @@ public class EppoPrecomputedClient {
     Log.d(TAG, "Stopped polling");
   }
 
+  /**
+   * Suffix of the cache file name for the API key and subject. The subject key is reduced to an MD5
+   * prefix to keep a consistent length and avoid storing it in the file name.
+   */
+  static String cacheFileNameSuffix(String apiKey, String subjectKey) {
+    String subjectKeyHash =
+        ObfuscationUtils.md5HexPrefix(subjectKey, null, SUBJECT_KEY_HASH_LENGTH);
+    return safeCacheKey(apiKey) + "-" + subjectKeyHash;
+  }
+
   // Builder class
 
   public static class Builder {
@@ -761,6 +941,7 @@ public class EppoPrecomputedClient {
     @Nullable private Map<String, Map<String, Attributes>> banditActions;
     @Nullable private AssignmentLogger assignmentLogger;
     @Nullable private BanditLogger banditLogger;
+    @Nullable private AsyncLogDispatcher logDispatcher;
     private IAssignmentCache assignmentCache = new LRUAssignmentCache(100);
     @Nullable private IAssignmentCache banditCache;
     @Nullable private PrecomputedConfigurationStore configStore;
@@ -773,6 +954,11 @@ public class EppoPrecomputedClient {
     @Nullable private String baseUrl;
     @Nullable private byte[] initialConfiguration;
     private boolean ignoreCachedConfiguration = false;
+    private boolean lazyFlagParsing = false;
+    private int cacheCompressionLevel = BaseCacheFile.COMPRESSION_DISABLED;
+    private Executor ioExecutor = SdkExecutors.io();
+    private Executor cpuExecutor = SdkExecutors.cpu();
+    private boolean deltaUpdates = false;
     @Nullable private OkHttpClient httpClient;
 
     public Builder(@NonNull String apiKey, @NonNull Application application) {
@@ -810,6 +996,37 @@ public class EppoPrecomputedClient {
       return this;
     }
 
+    /**
+     * Delivers assignments to the given logger in batches, using the default batch size and latency
+     * of {@link BatchingAssignmentLogger} (optional). Replaces any logger set with {@link
+     * #assignmentLogger}; use {@link EppoPrecomputedClient#flushLogs()} to send a partial batch.
+     */
+    public Builder batchAssignmentLogger(@NonNull BatchAssignmentLogger batchAssignmentLogger) {
+      this.assignmentLogger = new BatchingAssignmentLogger(batchAssignmentLogger);
+      return this;
+    }
+
+    /**
+     * Delivers bandit actions to the given logger in batches, using the default batch size and
+     * latency of {@link BatchingBanditLogger} (optional). Replaces any logger set with {@link
+     * #banditLogger}.
+     */
+    public Builder batchBanditLogger(@NonNull BatchBanditLogger batchBanditLogger) {
+      this.banditLogger = new BatchingBanditLogger(batchBanditLogger);
+      return this;
+    }
+
+    /**
+     * Delivers assignment and bandit logging callbacks on the given dispatcher's background thread
+     * instead of the thread requesting the assignment (optional). By default loggers are called
+     * synchronously. The dispatcher is owned by the caller, which may share it between clients and
+     * should {@link AsyncLogDispatcher#flush flush} it when the app goes to the background.
+     */
+    public Builder asyncLogDispatcher(@Nullable AsyncLogDispatcher logDispatcher) {
+      this.logDispatcher = logDispatcher;
+      return this;
+    }
+
     /** Sets the assignment cache (optional). Default is LRUAssignmentCache(100). */
     public Builder assignmentCache(@Nullable IAssignmentCache assignmentCache) {
       this.assignmentCache = assignmentCache;
@@ -882,7 +1099,64 @@ public class EppoPrecomputedClient {
       return this;
     }
 
-    /** Sets a custom HTTP client (optional, for testing). */
+    /**
+     * Parses flags and bandits on first access instead of up front, so parse time and retained
+     * memory scale with the flags actually read. Applies to the configuration store created by the
+     * builder; a store passed to {@link #configStore} keeps its own setting. Default is false.
+     */
+    public Builder lazyFlagParsing(boolean lazyFlagParsing) {
+      this.lazyFlagParsing = lazyFlagParsing;
+      return this;
+    }
+
+    /**
+     * GZIP level (0-9) for the configuration cache file, or {@link
+     * BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed. Compression shrinks the file
+     * severalfold at the cost of inflating it on load; files written with either setting remain
+     * readable. Applies to the configuration store created by the builder. Default is disabled.
+     */
+    public Builder cacheCompressionLevel(int cacheCompressionLevel) {
+      this.cacheCompressionLevel = cacheCompressionLevel;
+      return this;
+    }
+
+    /**
+     * Sets the executor for cache file reads and writes. Defaults to a small pool of background
+     * priority threads owned by the SDK. Applies to the configuration store created by the builder.
+     */
+    public Builder ioExecutor(@NonNull Executor ioExecutor) {
+      this.ioExecutor = ioExecutor;
+      return this;
+    }
+
+    /**
+     * Sets the executor for parsing, encoding and indexing configurations. Defaults to a small pool
+     * of background priority threads owned by the SDK. Fetched configurations are parsed on it when
+     * the store parses lazily; otherwise they are parsed on the HTTP callback thread as the
+     * response downloads. The remaining work only uses it in the configuration store created by the
+     * builder.
+     */
+    public Builder cpuExecutor(@NonNull Executor cpuExecutor) {
+      this.cpuExecutor = cpuExecutor;
+      return this;
+    }
+
+    /**
+     * Requests delta updates when fetching: the client reports the creation timestamp of its
+     * current configuration, and a response in the {@link PrecomputedConfigurationDelta#FORMAT}
+     * format, holding only changed and removed flags and bandits, is merged into it in memory and
+     * in the cache file. Full responses are still accepted. Default is false.
+     */
+    public Builder deltaUpdates(boolean deltaUpdates) {
+      this.deltaUpdates = deltaUpdates;
+      return this;
+    }
+
+    /**
+     * Sets a custom HTTP client (optional, for testing). Defaults to {@link
+     * SharedHttpClient#get()}; a client derived from it with {@code newBuilder()} keeps sharing its
+     * connections.
+     */
     public Builder httpClient(@Nullable OkHttpClient httpClient) {
       this.httpClient = httpClient;
       return this;
@@ -910,15 +1184,32 @@ public class EppoPrecomputedClient {
 
       // Create configuration store
       if (configStore == null) {
-        // Use MD5 hash prefix of subject key to ensure consistent length and privacy
-        String subjectKeyHash =
-            ObfuscationUtils.md5HexPrefix(subjectKey, null, SUBJECT_KEY_HASH_LENGTH);
-        String cacheFileNameSuffix = safeCacheKey(apiKey) + "-" + subjectKeyHash;
-        configStore = new PrecomputedConfigurationStore(application, cacheFileNameSuffix);
+        String cacheFileNameSuffix = cacheFileNameSuffix(apiKey, subjectKey);
+        // A store preloaded by EppoCachePreloader is adopted with its in-flight read, so the file
+        // is not read twice nor written by two stores
+        PrecomputedConfigurationStore preloaded =
+            CachePreloads.takePrecomputedStore(cacheFileNameSuffix);
+        if (preloaded != null
+            && preloaded.hasSettings(
+                lazyFlagParsing, cacheCompressionLevel, ioExecutor, cpuExecutor)) {
+          configStore = preloaded;
+        } else {
+          if (preloaded != null) {
+            Log.d(TAG, "Not adopting the preloaded cache read (store settings differ)");
+          }
+          configStore =
+              new PrecomputedConfigurationStore(
+                  application,
+                  cacheFileNameSuffix,
+                  lazyFlagParsing,
+                  cacheCompressionLevel,
+                  ioExecutor,
+                  cpuExecutor);
+        }
       }
 
-      // Create HTTP client
-      OkHttpClient client = httpClient != null ? httpClient : new OkHttpClient();
+      // Share connections with other clients, including earlier instances being replaced
+      OkHttpClient client = httpClient != null ? httpClient : SharedHttpClient.get();
 
       // Derive base URL from API key if not explicitly set
       String effectiveBaseUrl = baseUrl;
@@ -939,12 +1230,15 @@ public class EppoPrecomputedClient {
               banditActions,
               assignmentLogger,
               banditLogger,
+              logDispatcher,
               assignmentCache,
               banditCache,
               configStore,
               isGracefulMode,
               effectiveBaseUrl,
-              client);
+              client,
+              cpuExecutor,
+              deltaUpdates);
 
       CompletableFuture<EppoPrecomputedClient> result = new CompletableFuture<>();
 
@@ -953,7 +1247,7 @@ public class EppoPrecomputedClient {
         // Use provided initial configuration
         try {
           PrecomputedConfigurationResponse config =
-              PrecomputedConfigurationResponse.fromBytes(initialConfiguration);
+              configStore.parseConfiguration(initialConfiguration);
           configStore.setConfiguration(config);
           Log.d(TAG, "Loaded initial configuration with " + config.getFlags().size() + " flags");
         } catch (Exception e) {
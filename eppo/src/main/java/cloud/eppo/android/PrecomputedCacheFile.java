@@ -1,15 +1,61 @@
 package cloud.eppo.android;
 
 import android.app.Application;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
 
 /** Disk cache file for precomputed configuration. */
 public class PrecomputedCacheFile extends BaseCacheFile {
 
+  /**
+   * Version 1 is the binary cache format; unversioned files hold either the JSON wire format or an
+   * early binary file without the schema header.
+   */
+  static final int SCHEMA_VERSION = 1;
+
+  private static final String FILE_NAME_PREFIX = "eppo-sdk-precomputed-";
+  private static final long STALE_TEMP_FILE_MS = TimeUnit.HOURS.toMillis(1);
+  // Caches are kept per subject; those of subjects not seen for this long are removed
+  private static final long STALE_SUBJECT_CACHE_MS = TimeUnit.DAYS.toMillis(30);
+
+  // Name prefix shared by the caches of every subject under this file's API key
+  private final String apiKeyFileNamePrefix;
+
   public PrecomputedCacheFile(Application application, String fileNameSuffix) {
-    super(application, cacheFileName(fileNameSuffix));
+    this(application, fileNameSuffix, COMPRESSION_DISABLED);
+  }
+
+  /**
+   * @param compressionLevel GZIP level, or {@link #COMPRESSION_DISABLED} to store contents as they
+   *     are
+   */
+  public PrecomputedCacheFile(
+      Application application, String fileNameSuffix, int compressionLevel) {
+    super(application, cacheFileName(fileNameSuffix), compressionLevel, SCHEMA_VERSION);
+    // Suffixes end with "-" and the subject key hash
+    int subjectStart = fileNameSuffix.lastIndexOf('-') + 1;
+    apiKeyFileNamePrefix = FILE_NAME_PREFIX + fileNameSuffix.substring(0, subjectStart);
+    registerMigration(
+        UNVERSIONED,
+        contents -> PrecomputedConfigurationResponse.fromCacheBytes(contents).toCacheBytes());
   }
 
   public static String cacheFileName(String suffix) {
-    return "eppo-sdk-precomputed-" + suffix + ".json";
+    return FILE_NAME_PREFIX + suffix + ".json";
+  }
+
+  /**
+   * Only caches of the same API key are considered, so a client never removes the caches of another
+   * API key's clients, whose subjects it does not see being used.
+   */
+  @Override
+  protected boolean isOrphaned(File file, long nowMs) {
+    String name = file.getName();
+    if (!name.startsWith(apiKeyFileNamePrefix)) {
+      return false;
+    }
+    return isOlderThan(
+        file, nowMs, name.endsWith(TEMP_SUFFIX) ? STALE_TEMP_FILE_MS : STALE_SUBJECT_CACHE_MS);
   }
 }
@@ -6,100 +6,454 @@ import android.app.Application;
 import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import cloud.eppo.android.dto.DecodedPrecomputedFlag;
 import cloud.eppo.android.dto.PrecomputedBandit;
+import cloud.eppo.android.dto.PrecomputedConfigurationDelta;
 import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
 import cloud.eppo.android.dto.PrecomputedFlag;
-import cloud.eppo.android.util.Utils;
+import cloud.eppo.android.util.Md5KeyIndex;
+import cloud.eppo.android.util.ObfuscationUtils;
+import cloud.eppo.android.util.SaltedMd5Hasher;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /** Storage for precomputed flags/bandits with disk caching. */
 public class PrecomputedConfigurationStore {
 
   private static final String TAG = logTag(PrecomputedConfigurationStore.class);
+  // Upper bound on memoized flag keys so arbitrary caller-supplied keys cannot grow it unbounded
+  private static final int MAX_MEMOIZED_HASHED_KEYS = 1024;
   private final PrecomputedCacheFile cacheFile;
+  private final boolean lazyParsing;
+  private final Executor ioExecutor;
+  private final Executor cpuExecutor;
+  // Guards the cache files
   private final Object cacheLock = new Object();
+  // Orders configuration installs and index publication; never held across disk I/O
+  private final Object installLock = new Object();
 
-  private volatile PrecomputedConfigurationResponse configuration =
-      PrecomputedConfigurationResponse.empty();
+  // The configuration and its hashed key memo, read together so lookups never mix salts
+  private volatile InstalledConfiguration installed =
+      new InstalledConfiguration(PrecomputedConfigurationResponse.empty(), new HashedKeyMemo(null));
   private final Object cacheLoadLock = new Object();
   private CompletableFuture<PrecomputedConfigurationResponse> cacheLoadFuture = null;
+  private boolean cacheMaintenanceScheduled = false;
+  private volatile ConfigurationIndex configurationIndex =
+      ConfigurationIndex.eager(installed.configuration);
 
   public PrecomputedConfigurationStore(Application application, String cacheFileNameSuffix) {
-    cacheFile = new PrecomputedCacheFile(application, cacheFileNameSuffix);
+    this(application, cacheFileNameSuffix, false);
+  }
+
+  /**
+   * @param lazyParsing Whether configurations parsed by this store decode each flag and bandit on
+   *     first access instead of up front
+   */
+  public PrecomputedConfigurationStore(
+      Application application, String cacheFileNameSuffix, boolean lazyParsing) {
+    this(application, cacheFileNameSuffix, lazyParsing, BaseCacheFile.COMPRESSION_DISABLED);
+  }
+
+  /**
+   * @param lazyParsing Whether configurations parsed by this store decode each flag and bandit on
+   *     first access instead of up front
+   * @param cacheCompressionLevel GZIP level for the cache file, or {@link
+   *     BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed
+   */
+  public PrecomputedConfigurationStore(
+      Application application,
+      String cacheFileNameSuffix,
+      boolean lazyParsing,
+      int cacheCompressionLevel) {
+    this(
+        application,
+        cacheFileNameSuffix,
+        lazyParsing,
+        cacheCompressionLevel,
+        SdkExecutors.io(),
+        SdkExecutors.cpu());
+  }
+
+  /**
+   * @param lazyParsing Whether configurations parsed by this store decode each flag and bandit on
+   *     first access instead of up front
+   * @param cacheCompressionLevel GZIP level for the cache file, or {@link
+   *     BaseCacheFile#COMPRESSION_DISABLED} to store it uncompressed
+   * @param ioExecutor Runs cache file reads and writes
+   * @param cpuExecutor Runs configuration encoding and indexing
+   */
+  public PrecomputedConfigurationStore(
+      Application application,
+      String cacheFileNameSuffix,
+      boolean lazyParsing,
+      int cacheCompressionLevel,
+      @NonNull Executor ioExecutor,
+      @NonNull Executor cpuExecutor) {
+    cacheFile = new PrecomputedCacheFile(application, cacheFileNameSuffix, cacheCompressionLevel);
+    this.lazyParsing = lazyParsing;
+    this.ioExecutor = ioExecutor;
+    this.cpuExecutor = cpuExecutor;
+  }
+
+  /** Returns whether configurations parsed by this store are decoded lazily. */
+  public boolean isLazyParsing() {
+    return lazyParsing;
+  }
+
+  /**
+   * Parses a wire payload into a configuration, lazily if this store was created with lazy parsing.
+   *
+   * @throws RuntimeException if parsing fails
+   */
+  @NonNull public PrecomputedConfigurationResponse parseConfiguration(@NonNull byte[] payload) {
+    return PrecomputedConfigurationResponse.fromBytes(payload, lazyParsing);
+  }
+
+  /**
+   * Parses a wire payload as it is read from a stream, so the payload is never held in memory as a
+   * whole, and digests it on the way. The stream is read to its end but not closed. The result is
+   * saved like any other configuration, through {@link #saveConfiguration}, so the cache file keeps
+   * the binary format and unchanged contents are not rewritten.
+   *
+   * @throws IOException if the payload cannot be read
+   * @throws RuntimeException if parsing fails
+   */
+  @NonNull StreamedConfiguration parseStreamedConfiguration(@NonNull InputStream payload)
+      throws IOException {
+    DigestInputStream digesting = new DigestInputStream(payload, newSha256());
+    PrecomputedConfigurationResponse config =
+        PrecomputedConfigurationResponse.fromStream(digesting);
+    // Digest anything after the document too, so the digest covers the whole payload
+    byte[] buffer = new byte[8192];
+    while (digesting.read(buffer) != -1) {
+      // Digested as it is read
+    }
+    return new StreamedConfiguration(config, digesting.getMessageDigest().digest());
+  }
+
+  private static MessageDigest newSha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
   }
 
   /** Returns the current configuration. */
   @NonNull public PrecomputedConfigurationResponse getConfiguration() {
-    return configuration;
+    return installed.configuration;
   }
 
   /** Returns the salt from the current configuration, or null if not set. */
   @Nullable public String getSalt() {
-    String salt = configuration.getSalt();
-    return (salt != null && !salt.isEmpty()) ? salt : null;
+    return installed.hashedKeyMemo.salt;
+  }
+
+  /**
+   * Returns the MD5-hashed key (salt + flagKey) used to look up a flag or bandit, or null if the
+   * current configuration has no salt. Results are memoized per salt, including for keys that are
+   * not present in the configuration, so repeated reads of the same flag skip hashing.
+   */
+  @Nullable public String getHashedKey(@NonNull String flagKey) {
+    HashedKey hashedKey = lookupHashedKey(flagKey);
+    return hashedKey != null ? hashedKey.hex : null;
+  }
+
+  /** Memoized variant of {@link #getHashedKey} that also carries the raw digest. */
+  @Nullable HashedKey lookupHashedKey(@NonNull String flagKey) {
+    return installed.hashedKeyMemo.lookup(flagKey);
   }
 
   /** Returns the format from the current configuration, or null if not set. */
   @Nullable public String getFormat() {
-    String format = configuration.getFormat();
+    String format = installed.configuration.getFormat();
     return (format != null && !format.isEmpty()) ? format : null;
   }
 
   /** Returns a flag by its MD5-hashed key, or null if not found. */
   @Nullable public PrecomputedFlag getFlag(String hashedKey) {
-    return configuration.getFlags().get(hashedKey);
+    return installed.configuration.getFlags().get(hashedKey);
+  }
+
+  /**
+   * Returns a flag by its MD5-hashed key with its values already decoded, or null if not found.
+   * Served from the decoded index once it has been built for the current configuration; until then
+   * the flag is decoded on the fly.
+   *
+   * @throws RuntimeException if the flag's values cannot be decoded, whether or not the index has
+   *     been built
+   */
+  @Nullable public DecodedPrecomputedFlag getDecodedFlag(String hashedKey) {
+    PrecomputedConfigurationResponse current = installed.configuration;
+    ConfigurationIndex index = configurationIndex;
+    if (index.source == current && (index.isLazy() || Md5KeyIndex.isMd5Hex(hashedKey))) {
+      return index.getFlag(hashedKey);
+    }
+    return decodeFlag(current, hashedKey);
+  }
+
+  /**
+   * Digest-keyed variant of {@link #getDecodedFlag(String)} used on the assignment path. A key
+   * hashed with the salt of a configuration that has since been replaced is hashed again with the
+   * current salt, so a salt change between hashing and lookup does not cause a miss.
+   */
+  @Nullable DecodedPrecomputedFlag getDecodedFlag(@NonNull HashedKey hashedKey) {
+    InstalledConfiguration current = installed;
+    HashedKey currentKey = current.hashedKeyMemo.rehash(hashedKey);
+    if (currentKey == null) {
+      return null;
+    }
+    ConfigurationIndex index = configurationIndex;
+    if (index.source == current.configuration) {
+      return index.getFlag(currentKey);
+    }
+    return decodeFlag(current.configuration, currentKey.hex);
+  }
+
+  @Nullable private static DecodedPrecomputedFlag decodeFlag(
+      PrecomputedConfigurationResponse source, String hashedKey) {
+    PrecomputedFlag flag = source.getFlags().get(hashedKey);
+    return flag != null ? DecodedPrecomputedFlag.decode(flag) : null;
   }
 
   /** Returns a bandit by its MD5-hashed key, or null if not found. */
   @Nullable public PrecomputedBandit getBandit(String hashedKey) {
-    return configuration.getBandits().get(hashedKey);
+    return installed.configuration.getBandits().get(hashedKey);
+  }
+
+  /**
+   * Digest-keyed variant of {@link #getBandit(String)} used on the assignment path, hashing the key
+   * again if the salt has changed since, as {@link #getDecodedFlag(HashedKey)} does.
+   */
+  @Nullable PrecomputedBandit getBandit(@NonNull HashedKey hashedKey) {
+    InstalledConfiguration current = installed;
+    HashedKey currentKey = current.hashedKeyMemo.rehash(hashedKey);
+    if (currentKey == null) {
+      return null;
+    }
+    ConfigurationIndex index = configurationIndex;
+    if (index.source == current.configuration) {
+      return index.getBandit(currentKey);
+    }
+    return current.configuration.getBandits().get(currentKey.hex);
   }
 
   /** Returns the flags map. */
   @NonNull public Map<String, PrecomputedFlag> getFlags() {
-    return configuration.getFlags();
+    return installed.configuration.getFlags();
   }
 
   /** Returns the bandits map. */
   @NonNull public Map<String, PrecomputedBandit> getBandits() {
-    return configuration.getBandits();
+    return installed.configuration.getBandits();
   }
 
   /** Updates the configuration with a new response. */
   public void setConfiguration(@NonNull PrecomputedConfigurationResponse newConfiguration) {
-    this.configuration = newConfiguration;
+    applyConfiguration(newConfiguration);
+  }
+
+  /**
+   * Installs a new in-memory configuration. The hashed key memo is only dropped when the salt
+   * changes, as hashed keys are a function of the salt alone. Installs are serialized with index
+   * publication under the install lock.
+   */
+  private void applyConfiguration(@NonNull PrecomputedConfigurationResponse newConfiguration) {
+    synchronized (installLock) {
+      installConfiguration(newConfiguration);
+      buildConfigurationIndex(newConfiguration);
+    }
   }
 
-  /** Loads configuration from the cache file asynchronously. */
+  private void installConfiguration(@NonNull PrecomputedConfigurationResponse newConfiguration) {
+    String newSalt = normalizeSalt(newConfiguration.getSalt());
+    HashedKeyMemo memo = installed.hashedKeyMemo;
+    if (newSalt == null ? memo.salt != null : !newSalt.equals(memo.salt)) {
+      memo = new HashedKeyMemo(newSalt);
+    }
+    installed = new InstalledConfiguration(newConfiguration, memo);
+  }
+
+  /**
+   * Applies a delta update to the current configuration and saves the result to the cache file
+   * asynchronously. The update is copy-on-write: the merged configuration shares the unchanged
+   * flags and bandits of the current one, and its index reuses their decoded values, so only the
+   * changed entries are decoded. Readers keep seeing the previous configuration until the merged
+   * one is installed. The merge is installed on the calling thread, so saves and deltas apply in
+   * call order; the merged configuration is then encoded on the CPU executor and written on the I/O
+   * executor.
+   *
+   * @return future completing with the installed configuration, or with null if the delta does not
+   *     apply to the current configuration, which is then left unchanged
+   */
+  public CompletableFuture<PrecomputedConfigurationResponse> saveDelta(
+      @NonNull PrecomputedConfigurationDelta delta) {
+    PrecomputedConfigurationResponse merged;
+    try {
+      merged = applyDelta(delta);
+    } catch (RuntimeException e) {
+      CompletableFuture<PrecomputedConfigurationResponse> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+    if (merged == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.supplyAsync(merged::toCacheBytes, cpuExecutor)
+        .thenAcceptAsync(contents -> writeCacheFile(merged, contents), ioExecutor)
+        .thenApply(written -> merged);
+  }
+
+  @Nullable private PrecomputedConfigurationResponse applyDelta(
+      @NonNull PrecomputedConfigurationDelta delta) {
+    synchronized (installLock) {
+      PrecomputedConfigurationResponse base = installed.configuration;
+      if (!delta.appliesTo(base)) {
+        return null;
+      }
+      PrecomputedConfigurationResponse merged = delta.applyTo(base);
+      ConfigurationIndex index = configurationIndex;
+      installConfiguration(merged);
+      if (index.source == base) {
+        configurationIndex = index.withDelta(merged, delta);
+      } else {
+        buildConfigurationIndex(merged);
+      }
+      return merged;
+    }
+  }
+
+  /**
+   * Decodes every flag of the configuration and indexes flags and bandits by digest in the
+   * background, off the assignment path. Lazily parsed configurations are instead indexed as their
+   * flags are read, since decoding everything up front would defeat lazy parsing. Must be called
+   * under the install lock.
+   */
+  private void buildConfigurationIndex(@NonNull PrecomputedConfigurationResponse source) {
+    if (source.isLazy()) {
+      configurationIndex = ConfigurationIndex.lazy(source);
+      return;
+    }
+    CompletableFuture.runAsync(
+        () -> {
+          ConfigurationIndex index = ConfigurationIndex.eager(source);
+          // A newer configuration may have been installed, and indexed, while decoding. The check
+          // and the publication happen under the lock installs take, so a stale index never
+          // replaces the current configuration's.
+          synchronized (installLock) {
+            if (installed.configuration == source) {
+              configurationIndex = index;
+            }
+          }
+        },
+        cpuExecutor);
+  }
+
+  @Nullable private static String normalizeSalt(@Nullable String salt) {
+    return (salt != null && !salt.isEmpty()) ? salt : null;
+  }
+
+  /**
+   * Loads configuration from the cache file asynchronously, then upgrades and cleans up cache files
+   * on the I/O executor. A read already started by {@link #preloadConfigFromCache()} is reused.
+   */
   public CompletableFuture<PrecomputedConfigurationResponse> loadConfigFromCache() {
     synchronized (cacheLoadLock) {
-      if (cacheLoadFuture != null) {
-        return cacheLoadFuture;
+      CompletableFuture<PrecomputedConfigurationResponse> load = startCacheLoad();
+      if (load == cacheLoadFuture) {
+        // A read is maintained after once, however many callers share it
+        if (cacheMaintenanceScheduled) {
+          return load;
+        }
+        cacheMaintenanceScheduled = true;
       }
-      if (!cacheFile.exists()) {
-        Log.d(TAG, "Not loading from cache (file does not exist)");
-        return CompletableFuture.completedFuture(null);
+      // Upgrade and clean up once the read is done, without delaying it
+      load.whenCompleteAsync((config, error) -> maintainCacheFiles(), ioExecutor);
+      return load;
+    }
+  }
+
+  /**
+   * Starts reading the cache file without writing to it, for a store that a client builder may
+   * adopt later. Maintenance waits for {@link #loadConfigFromCache()}.
+   */
+  CompletableFuture<PrecomputedConfigurationResponse> preloadConfigFromCache() {
+    synchronized (cacheLoadLock) {
+      return startCacheLoad();
+    }
+  }
+
+  private CompletableFuture<PrecomputedConfigurationResponse> startCacheLoad() {
+    if (cacheLoadFuture != null) {
+      return cacheLoadFuture;
+    }
+    if (!cacheFile.exists()) {
+      Log.d(TAG, "Not loading from cache (file does not exist)");
+      return CompletableFuture.completedFuture(null);
+    }
+    cacheLoadFuture =
+        CompletableFuture.supplyAsync(
+            () -> {
+              Log.d(TAG, "Loading precomputed config from cache");
+              return readCacheFile();
+            },
+            ioExecutor);
+    return cacheLoadFuture;
+  }
+
+  /**
+   * Returns whether this store was created with these settings, so a client builder configured with
+   * them can adopt it.
+   */
+  boolean hasSettings(
+      boolean lazyParsing,
+      int cacheCompressionLevel,
+      @NonNull Executor ioExecutor,
+      @NonNull Executor cpuExecutor) {
+    return this.lazyParsing == lazyParsing
+        && cacheFile.getCompressionLevel() == cacheCompressionLevel
+        && this.ioExecutor == ioExecutor
+        && this.cpuExecutor == cpuExecutor;
+  }
+
+  /**
+   * Writes back a cache file that was migrated from an older schema version when read, and removes
+   * stale cache files of other subjects and interrupted writes.
+   */
+  private void maintainCacheFiles() {
+    synchronized (cacheLock) {
+      try {
+        if (cacheFile.rewritePendingUpgrade()) {
+          Log.d(
+              TAG,
+              "Upgraded precomputed cache file to schema version " + cacheFile.getSchemaVersion());
+        }
+      } catch (IOException e) {
+        Log.w(TAG, "Unable to upgrade precomputed cache file", e);
       }
-      return cacheLoadFuture =
-          CompletableFuture.supplyAsync(
-              () -> {
-                Log.d(TAG, "Loading precomputed config from cache");
-                return readCacheFile();
-              });
+    }
+    int removed = cacheFile.removeOrphanedFiles();
+    if (removed > 0) {
+      Log.d(TAG, "Removed " + removed + " orphaned precomputed cache files");
     }
   }
 
   /** Reads the cache file and returns the configuration, or null if reading fails. */
   @Nullable protected PrecomputedConfigurationResponse readCacheFile() {
     synchronized (cacheLock) {
-      try (InputStream inputStream = cacheFile.getInputStream()) {
+      try {
         Log.d(TAG, "Attempting to inflate precomputed config");
-        byte[] bytes = Utils.toByteArray(inputStream);
-        PrecomputedConfigurationResponse config = PrecomputedConfigurationResponse.fromBytes(bytes);
+        // Records are decoded straight out of the mapping, so the file is never copied to the heap
+        PrecomputedConfigurationResponse config =
+            PrecomputedConfigurationResponse.fromCacheBuffer(cacheFile.mapForRead(), lazyParsing);
         Log.d(TAG, "Precomputed cache load complete");
         return config;
       } catch (IOException e) {
@@ -109,30 +463,290 @@ public class PrecomputedConfigurationStore {
     }
   }
 
-  /** Saves the configuration to the cache file asynchronously. */
+  /**
+   * Installs the configuration on the calling thread, so back-to-back saves apply in call order,
+   * then saves it to the cache file asynchronously: it is encoded on the CPU executor and written
+   * on the I/O executor unless a newer configuration has been installed by then.
+   */
   public CompletableFuture<Void> saveConfiguration(
       @NonNull PrecomputedConfigurationResponse newConfiguration) {
-    return CompletableFuture.supplyAsync(
+    // Always update in-memory configuration, even if disk write fails
+    applyConfiguration(newConfiguration);
+    return CompletableFuture.supplyAsync(newConfiguration::toCacheBytes, cpuExecutor)
+        .thenAcceptAsync(contents -> writeCacheFile(newConfiguration, contents), ioExecutor);
+  }
+
+  /**
+   * Writes the encoded configuration unless another configuration has been installed since. Saves
+   * are installed in call order, but encoding and writing them can finish out of order on the
+   * executors' threads, so a superseded save must not overwrite its successor's file; the
+   * successor's own save writes it.
+   */
+  private void writeCacheFile(PrecomputedConfigurationResponse source, byte[] contents) {
+    synchronized (cacheLock) {
+      if (installed.configuration != source) {
+        Log.d(TAG, "Precomputed configuration superseded; skipped cache file write");
+        return;
+      }
+      Log.d(TAG, "Saving precomputed configuration to cache file");
+      try {
+        if (cacheFile.writeAtomicallyIfChanged(contents)) {
+          Log.d(TAG, "Updated precomputed cache file");
+        } else {
+          Log.d(TAG, "Precomputed configuration unchanged; skipped cache file write");
+        }
+      } catch (IOException e) {
+        Log.e(TAG, "Unable to write precomputed config to file (in-memory updated)", e);
+        // Don't throw - in-memory config is already updated
+      }
+    }
+  }
+
+  /**
+   * Records on the I/O executor that the cached configuration was confirmed current, e.g. by a 304
+   * response, so the cache is not removed as stale while the configuration stays unchanged.
+   */
+  public void confirmCachedConfiguration() {
+    ioExecutor.execute(
         () -> {
           synchronized (cacheLock) {
-            // Always update in-memory configuration, even if disk write fails
-            this.configuration = newConfiguration;
-
-            Log.d(TAG, "Saving precomputed configuration to cache file");
-            try (OutputStream outputStream = cacheFile.getOutputStream()) {
-              outputStream.write(newConfiguration.toBytes());
-              Log.d(TAG, "Updated precomputed cache file");
-            } catch (IOException e) {
-              Log.e(TAG, "Unable to write precomputed config to file (in-memory updated)", e);
-              // Don't throw - in-memory config is already updated
-            }
-            return null;
+            cacheFile.touch();
           }
         });
   }
 
+  /** Returns how many saves skipped the disk write because the configuration was unchanged. */
+  public long getSkippedCacheWriteCount() {
+    return cacheFile.getSkippedWriteCount();
+  }
+
   /** Deletes the cache file. */
   public void deleteCache() {
     cacheFile.delete();
   }
+
+  /**
+   * Decoded flags and bandits of a single configuration. Eager indexes decode every flag up front
+   * and key flags and bandits by MD5 digest; entries whose keys are not hex digests are only
+   * reachable through the configuration's maps. Lazy indexes decode and memoize flags as they are
+   * first read. A flag that fails to decode is indexed as an {@link UndecodableFlag}, and reading
+   * it throws the decoding error, just as decoding it on the fly does before the index is built.
+   */
+  private static final class ConfigurationIndex {
+    final PrecomputedConfigurationResponse source;
+    // Values are DecodedPrecomputedFlag or UndecodableFlag
+    @Nullable private final Md5KeyIndex<Object> flags;
+    @Nullable private final Md5KeyIndex<PrecomputedBandit> bandits;
+    @Nullable private final ConcurrentHashMap<String, Object> lazyFlags;
+
+    private ConfigurationIndex(
+        PrecomputedConfigurationResponse source,
+        @Nullable Md5KeyIndex<Object> flags,
+        @Nullable Md5KeyIndex<PrecomputedBandit> bandits,
+        @Nullable ConcurrentHashMap<String, Object> lazyFlags) {
+      this.source = source;
+      this.flags = flags;
+      this.bandits = bandits;
+      this.lazyFlags = lazyFlags;
+    }
+
+    static ConfigurationIndex eager(PrecomputedConfigurationResponse source) {
+      return new ConfigurationIndex(
+          source,
+          Md5KeyIndex.fromHexKeys(source.getFlags(), ConfigurationIndex::decodeOrMark),
+          Md5KeyIndex.fromHexKeys(source.getBandits()),
+          null);
+    }
+
+    static ConfigurationIndex lazy(PrecomputedConfigurationResponse source) {
+      return new ConfigurationIndex(source, null, null, new ConcurrentHashMap<>());
+    }
+
+    boolean isLazy() {
+      return lazyFlags != null;
+    }
+
+    /**
+     * Returns the index of {@code merged}, the result of applying {@code delta} to this index's
+     * source. Decoded flags of unchanged keys are carried over; changed flags are decoded again.
+     */
+    ConfigurationIndex withDelta(
+        PrecomputedConfigurationResponse merged, PrecomputedConfigurationDelta delta) {
+      if (lazyFlags != null) {
+        ConcurrentHashMap<String, Object> carried = new ConcurrentHashMap<>(lazyFlags);
+        carried.keySet().removeAll(delta.getFlags().keySet());
+        carried.keySet().removeAll(delta.getRemovedFlags());
+        return new ConfigurationIndex(merged, null, null, carried);
+      }
+      if (merged.isLazy()) {
+        return lazy(merged);
+      }
+      return new ConfigurationIndex(
+          merged,
+          flags.withChanges(
+              delta.getFlags(), ConfigurationIndex::decodeOrMark, delta.getRemovedFlags()),
+          bandits.withChanges(delta.getBandits(), Function.identity(), delta.getRemovedBandits()),
+          null);
+    }
+
+    /**
+     * @throws RuntimeException if the flag could not be decoded
+     */
+    @Nullable DecodedPrecomputedFlag getFlag(HashedKey hashedKey) {
+      return flags != null
+          ? unmark(flags.get(hashedKey.high, hashedKey.low))
+          : getFlag(hashedKey.hex);
+    }
+
+    /**
+     * @throws RuntimeException if the flag could not be decoded
+     */
+    @Nullable DecodedPrecomputedFlag getFlag(String hashedKey) {
+      if (lazyFlags == null) {
+        return unmark(flags.get(hashedKey));
+      }
+      Object decoded = lazyFlags.get(hashedKey);
+      if (decoded == null) {
+        PrecomputedFlag flag;
+        try {
+          flag = source.getFlags().get(hashedKey);
+        } catch (RuntimeException e) {
+          Log.w(TAG, "Skipping precomputed flag that could not be parsed: " + e.getMessage());
+          return null;
+        }
+        if (flag == null) {
+          return null;
+        }
+        decoded = decodeOrMark(flag);
+        Object raced = lazyFlags.putIfAbsent(hashedKey, decoded);
+        decoded = raced != null ? raced : decoded;
+      }
+      return unmark(decoded);
+    }
+
+    @Nullable PrecomputedBandit getBandit(HashedKey hashedKey) {
+      if (bandits != null) {
+        return bandits.get(hashedKey.high, hashedKey.low);
+      }
+      try {
+        return source.getBandits().get(hashedKey.hex);
+      } catch (RuntimeException e) {
+        Log.w(TAG, "Skipping precomputed bandit that could not be parsed: " + e.getMessage());
+        return null;
+      }
+    }
+
+    private static Object decodeOrMark(PrecomputedFlag flag) {
+      try {
+        return DecodedPrecomputedFlag.decode(flag);
+      } catch (RuntimeException e) {
+        return new UndecodableFlag(e);
+      }
+    }
+
+    @Nullable private static DecodedPrecomputedFlag unmark(@Nullable Object entry) {
+      if (entry instanceof UndecodableFlag) {
+        throw ((UndecodableFlag) entry).error;
+      }
+      return (DecodedPrecomputedFlag) entry;
+    }
+  }
+
+  /** Index entry of a flag that failed to decode, holding the error to rethrow on each read. */
+  private static final class UndecodableFlag {
+    final RuntimeException error;
+
+    UndecodableFlag(RuntimeException error) {
+      this.error = error;
+    }
+  }
+
+  /** A configuration parsed from a payload stream, with the digest of the payload. */
+  static final class StreamedConfiguration {
+    final PrecomputedConfigurationResponse configuration;
+    // SHA-256 of the payload
+    final byte[] digest;
+
+    private StreamedConfiguration(PrecomputedConfigurationResponse configuration, byte[] digest) {
+      this.configuration = configuration;
+      this.digest = digest;
+    }
+  }
+
+  /**
+   * MD5(salt + flagKey) as both the hex map key and the two halves of the raw digest, with the flag
+   * key and salt it was computed from.
+   */
+  static final class HashedKey {
+    final String flagKey;
+    final String salt;
+    final String hex;
+    final long high;
+    final long low;
+
+    private HashedKey(String flagKey, String salt, String hex, long high, long low) {
+      this.flagKey = flagKey;
+      this.salt = salt;
+      this.hex = hex;
+      this.high = high;
+      this.low = low;
+    }
+
+    static HashedKey of(String salt, SaltedMd5Hasher hasher, String flagKey) {
+      byte[] digest = new byte[ObfuscationUtils.MD5_LENGTH];
+      hasher.md5(flagKey, digest, 0);
+      char[] hex = new char[ObfuscationUtils.MD5_HEX_LENGTH];
+      ObfuscationUtils.hexEncode(digest, hex, 0);
+      return new HashedKey(
+          flagKey,
+          salt,
+          new String(hex),
+          Md5KeyIndex.readLong(digest, 0),
+          Md5KeyIndex.readLong(digest, 8));
+    }
+  }
+
+  /** Memoized flag key to hashed key lookups, valid for a single salt. */
+  private static final class HashedKeyMemo {
+    @Nullable final String salt;
+    final SaltedMd5Hasher hasher;
+    final ConcurrentHashMap<String, HashedKey> hashedKeys = new ConcurrentHashMap<>();
+
+    HashedKeyMemo(@Nullable String salt) {
+      this.salt = salt;
+      this.hasher = new SaltedMd5Hasher(salt);
+    }
+
+    /** Returns the hashed key of the flag key, or null without a salt. */
+    @Nullable HashedKey lookup(String flagKey) {
+      if (salt == null) {
+        return null;
+      }
+      HashedKey hashedKey = hashedKeys.get(flagKey);
+      if (hashedKey == null) {
+        hashedKey = HashedKey.of(salt, hasher, flagKey);
+        if (hashedKeys.size() < MAX_MEMOIZED_HASHED_KEYS) {
+          hashedKeys.putIfAbsent(flagKey, hashedKey);
+        }
+      }
+      return hashedKey;
+    }
+
+    /** Returns the key as it is hashed with this memo's salt, or null without a salt. */
+    @Nullable HashedKey rehash(HashedKey hashedKey) {
+      return hashedKey.salt.equals(salt) ? hashedKey : lookup(hashedKey.flagKey);
+    }
+  }
+
+  /** A configuration together with the hashed key memo for its salt. */
+  private static final class InstalledConfiguration {
+    final PrecomputedConfigurationResponse configuration;
+    final HashedKeyMemo hashedKeyMemo;
+
+    InstalledConfiguration(
+        PrecomputedConfigurationResponse configuration, HashedKeyMemo hashedKeyMemo) {
+      this.configuration = configuration;
+      this.hashedKeyMemo = hashedKeyMemo;
+    }
+  }
 }
@@ -0,0 +1,82 @@
+package cloud.eppo.android;
+
+import android.os.Process;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default executors for the SDK's background work, used unless the application supplies its own
+ * through the client builders. Cache reads and writes run on the I/O executor; parsing, encoding
+ * and indexing configurations run on the CPU executor. Both are small pools of daemon threads at
+ * background priority, kept separate from {@link java.util.concurrent.ForkJoinPool#commonPool()} so
+ * SDK work neither starves nor is starved by application tasks. Idle threads exit after {@link
+ * #KEEP_ALIVE_SECONDS}.
+ */
+final class SdkExecutors {
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+  private static final int IO_THREADS = 2;
+
+  private SdkExecutors() {}
+
+  /** Returns the shared executor for disk I/O. */
+  static Executor io() {
+    return IoHolder.EXECUTOR;
+  }
+
+  /** Returns the shared executor for parsing and other CPU-bound work. */
+  static Executor cpu() {
+    return CpuHolder.EXECUTOR;
+  }
+
+  // Holders defer creating each pool until it is first used
+  private static final class IoHolder {
+    static final Executor EXECUTOR = newPool("eppo-io", IO_THREADS);
+  }
+
+  private static final class CpuHolder {
+    // Leave a core for the application; a 2-core device gets a single thread
+    static final Executor EXECUTOR =
+        newPool(
+            "eppo-cpu", Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1)));
+  }
+
+  private static Executor newPool(String name, int threads) {
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new BackgroundThreadFactory(name));
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static final class BackgroundThreadFactory implements ThreadFactory {
+    private final String name;
+    private final AtomicInteger count = new AtomicInteger();
+
+    BackgroundThreadFactory(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread =
+          new Thread(
+              () -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+              },
+              name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
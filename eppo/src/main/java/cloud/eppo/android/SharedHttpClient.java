@@ -0,0 +1,43 @@
+package cloud.eppo.android;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * Process-wide HTTP client for Eppo requests, used by every client that is not given one of its
+ * own. Sharing one connection pool means a reinitialized client, for example after switching to
+ * another subject, reuses the open connection to the Eppo edge instead of paying for a new TLS
+ * handshake, and requests to the same host are multiplexed over a single HTTP/2 connection where
+ * the server supports it.
+ *
+ * <p>Applications that need different settings, such as timeouts or interceptors, should derive
+ * their client with {@code SharedHttpClient.get().newBuilder()} so that it still shares the
+ * connection pool and dispatcher threads.
+ */
+public final class SharedHttpClient {
+
+  private static final int MAX_IDLE_CONNECTIONS = 5;
+  private static final long KEEP_ALIVE_MINUTES = 5;
+
+  private SharedHttpClient() {}
+
+  /** Returns the shared client, creating it on first use. */
+  public static OkHttpClient get() {
+    return Holder.CLIENT;
+  }
+
+  // Defers creating the client, and its pool, until the first request
+  private static final class Holder {
+    static final OkHttpClient CLIENT =
+        new OkHttpClient.Builder()
+            .connectionPool(
+                new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            // HTTP/2 is negotiated over TLS; plain connections fall back to HTTP/1.1 keep-alive
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .retryOnConnectionFailure(true)
+            .build();
+  }
+}
@@ -0,0 +1,205 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import cloud.eppo.android.util.Utils;
+import cloud.eppo.ufc.dto.VariationType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PrecomputedFlag} with its Base64 fields decoded and its variation value parsed into a
+ * typed slot, so reading an assignment is a field access rather than a decode and parse.
+ */
+public final class DecodedPrecomputedFlag {
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Nullable private final VariationType variationType;
+  @Nullable private final String allocationKey;
+  @Nullable private final String variationKey;
+  private final String stringValue;
+  private final boolean booleanValue;
+  private final int intValue;
+  private final double doubleValue;
+  private final boolean valueParsed;
+  private final Map<String, String> extraLogging;
+  private final boolean doLog;
+
+  // Parsed lazily on the first JSON read and kept for the lifetime of this configuration
+  @Nullable private volatile JsonNode jsonValue;
+  private volatile boolean jsonParseFailed;
+
+  private DecodedPrecomputedFlag(
+      @Nullable VariationType variationType,
+      @Nullable String allocationKey,
+      @Nullable String variationKey,
+      String stringValue,
+      boolean booleanValue,
+      int intValue,
+      double doubleValue,
+      boolean valueParsed,
+      Map<String, String> extraLogging,
+      boolean doLog) {
+    this.variationType = variationType;
+    this.allocationKey = allocationKey;
+    this.variationKey = variationKey;
+    this.stringValue = stringValue;
+    this.booleanValue = booleanValue;
+    this.intValue = intValue;
+    this.doubleValue = doubleValue;
+    this.valueParsed = valueParsed;
+    this.extraLogging = extraLogging;
+    this.doLog = doLog;
+  }
+
+  /**
+   * Decodes a wire flag. Integer and numeric values that fail to parse are kept as strings and
+   * reported through {@link #isValueParsed()}.
+   */
+  @NonNull public static DecodedPrecomputedFlag decode(@NonNull PrecomputedFlag flag) {
+    VariationType variationType = parseVariationType(flag.getVariationType());
+    String decoded = Utils.base64Decode(flag.getVariationValue());
+
+    boolean booleanValue = false;
+    int intValue = 0;
+    double doubleValue = 0;
+    boolean valueParsed = true;
+    if (decoded == null) {
+      valueParsed = false;
+    } else if (variationType == VariationType.BOOLEAN) {
+      booleanValue = "true".equalsIgnoreCase(decoded);
+    } else if (variationType == VariationType.INTEGER) {
+      try {
+        intValue = Integer.parseInt(decoded);
+        doubleValue = intValue;
+      } catch (NumberFormatException e) {
+        valueParsed = false;
+      }
+    } else if (variationType == VariationType.NUMERIC) {
+      try {
+        doubleValue = Double.parseDouble(decoded);
+      } catch (NumberFormatException e) {
+        valueParsed = false;
+      }
+    }
+
+    Map<String, String> extraLogging = Collections.emptyMap();
+    if (flag.getExtraLogging() != null && !flag.getExtraLogging().isEmpty()) {
+      Map<String, String> decodedExtraLogging = new HashMap<>();
+      for (Map.Entry<String, String> entry : flag.getExtraLogging().entrySet()) {
+        decodedExtraLogging.put(
+            Utils.base64Decode(entry.getKey()), Utils.base64Decode(entry.getValue()));
+      }
+      extraLogging = Collections.unmodifiableMap(decodedExtraLogging);
+    }
+
+    return new DecodedPrecomputedFlag(
+        variationType,
+        Utils.base64Decode(flag.getAllocationKey()),
+        Utils.base64Decode(flag.getVariationKey()),
+        decoded,
+        booleanValue,
+        intValue,
+        doubleValue,
+        valueParsed,
+        extraLogging,
+        flag.isDoLog());
+  }
+
+  @Nullable private static VariationType parseVariationType(@Nullable String variationType) {
+    if (variationType == null) {
+      return null;
+    }
+    switch (variationType.toUpperCase()) {
+      case "STRING":
+        return VariationType.STRING;
+      case "BOOLEAN":
+        return VariationType.BOOLEAN;
+      case "INTEGER":
+        return VariationType.INTEGER;
+      case "NUMERIC":
+        return VariationType.NUMERIC;
+      case "JSON":
+        return VariationType.JSON;
+      default:
+        return null;
+    }
+  }
+
+  /** Returns the variation type, or null if the wire type is not recognized. */
+  @Nullable public VariationType getVariationType() {
+    return variationType;
+  }
+
+  /** Returns the decoded allocation key, or null if not assigned. */
+  @Nullable public String getAllocationKey() {
+    return allocationKey;
+  }
+
+  /** Returns the decoded variation key, or null if not assigned. */
+  @Nullable public String getVariationKey() {
+    return variationKey;
+  }
+
+  /** Returns the decoded variation value as a string, regardless of variation type. */
+  public String getStringValue() {
+    return stringValue;
+  }
+
+  /** Returns the parsed value of a BOOLEAN flag. */
+  public boolean getBooleanValue() {
+    return booleanValue;
+  }
+
+  /** Returns the parsed value of an INTEGER flag. */
+  public int getIntValue() {
+    return intValue;
+  }
+
+  /** Returns the parsed value of a NUMERIC or INTEGER flag. */
+  public double getDoubleValue() {
+    return doubleValue;
+  }
+
+  /**
+   * Returns the variation value parsed as JSON, or null if it is not valid JSON. The value is
+   * parsed once per flag; each call returns a deep copy, so callers may modify the result freely.
+   */
+  @Nullable public JsonNode getJsonValue() {
+    JsonNode parsed = jsonValue;
+    if (parsed == null) {
+      if (jsonParseFailed || stringValue == null) {
+        return null;
+      }
+      try {
+        parsed = objectMapper.readTree(stringValue);
+      } catch (IOException e) {
+        jsonParseFailed = true;
+        return null;
+      }
+      // Racing readers may each parse once; any of their equivalent trees can be kept
+      jsonValue = parsed;
+    }
+    return parsed.deepCopy();
+  }
+
+  /** Returns false if an INTEGER or NUMERIC value could not be parsed. */
+  public boolean isValueParsed() {
+    return valueParsed;
+  }
+
+  /** Returns the decoded extra logging map (empty if not present). */
+  public Map<String, String> getExtraLogging() {
+    return extraLogging;
+  }
+
+  /** Returns whether this assignment should be logged. */
+  public boolean isDoLog() {
+    return doLog;
+  }
+}
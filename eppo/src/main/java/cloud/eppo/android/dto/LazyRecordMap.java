@@ -0,0 +1,180 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only map whose values are decoded from a retained payload on first access. Only the keys and
+ * the offset and length of each value's record are known up front; {@link #get(Object)} decodes a
+ * record the first time its key is read and memoizes the result. Iterating the map decodes records
+ * that have not been read yet without memoizing them, so bulk passes such as serialization do not
+ * grow the retained heap.
+ *
+ * @param <V> value type
+ */
+final class LazyRecordMap<V> extends AbstractMap<String, V> {
+
+  /** Decodes the record at the given position in the payload. */
+  interface RecordDecoder<V> {
+    V decode(int offset, int length) throws IOException;
+  }
+
+  // Offset marking a key whose value is null in the payload
+  static final int NULL_RECORD = -1;
+
+  private final String[] keys;
+  private final int[] offsets;
+  private final int[] lengths;
+  private final Map<String, Integer> slots;
+  private final AtomicReferenceArray<V> decoded;
+  private final RecordDecoder<V> decoder;
+
+  private LazyRecordMap(
+      String[] keys, int[] offsets, int[] lengths, int size, RecordDecoder<V> decoder) {
+    this.keys = Arrays.copyOf(keys, size);
+    this.offsets = Arrays.copyOf(offsets, size);
+    this.lengths = Arrays.copyOf(lengths, size);
+    this.slots = new HashMap<>((int) (size / 0.75f) + 1);
+    for (int i = 0; i < size; i++) {
+      // A repeated key takes the last record, as it would when parsing into a map
+      slots.put(keys[i], i);
+    }
+    this.decoded = new AtomicReferenceArray<>(size);
+    this.decoder = decoder;
+  }
+
+  @Override
+  public int size() {
+    return slots.size();
+  }
+
+  /** Returns the number of keys whose value is not null, without decoding any records. */
+  int nonNullSize() {
+    int count = 0;
+    for (int slot = advance(0); slot < keys.length; slot = advance(slot + 1)) {
+      if (offsets[slot] != NULL_RECORD) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Returns whether the key is present with a value that is not null, without decoding it. */
+  boolean hasNonNullValue(Object key) {
+    Integer slot = slots.get(key);
+    return slot != null && offsets[slot] != NULL_RECORD;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return slots.containsKey(key);
+  }
+
+  /**
+   * Returns the value for the key, decoding and memoizing it on first access.
+   *
+   * @throws IllegalStateException if the record cannot be decoded
+   */
+  @Override
+  @Nullable public V get(Object key) {
+    Integer slot = slots.get(key);
+    return slot != null ? valueAt(slot, true) : null;
+  }
+
+  @NonNull @Override
+  public Set<Entry<String, V>> entrySet() {
+    return new AbstractSet<Entry<String, V>>() {
+      @Override
+      public int size() {
+        return slots.size();
+      }
+
+      @NonNull @Override
+      public Iterator<Entry<String, V>> iterator() {
+        return new Iterator<Entry<String, V>>() {
+          private int next = advance(0);
+
+          @Override
+          public boolean hasNext() {
+            return next < keys.length;
+          }
+
+          @Override
+          public Entry<String, V> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int slot = next;
+            next = advance(slot + 1);
+            return new SimpleImmutableEntry<>(keys[slot], valueAt(slot, false));
+          }
+        };
+      }
+    };
+  }
+
+  /** Returns the first live slot at or after {@code from}, iterating in payload order. */
+  private int advance(int from) {
+    int slot = from;
+    while (slot < keys.length && slots.get(keys[slot]) != slot) {
+      slot++;
+    }
+    return slot;
+  }
+
+  @Nullable private V valueAt(int slot, boolean memoize) {
+    V value = decoded.get(slot);
+    if (value != null || offsets[slot] == NULL_RECORD) {
+      return value;
+    }
+    try {
+      value = decoder.decode(offsets[slot], lengths[slot]);
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalStateException("Failed to decode record for key " + keys[slot], e);
+    }
+    if (memoize && !decoded.compareAndSet(slot, null, value)) {
+      // Another reader decoded it first; share its instance
+      return decoded.get(slot);
+    }
+    return value;
+  }
+
+  /** Accumulates record positions for a {@link LazyRecordMap}. */
+  static final class Builder<V> {
+    private String[] keys = new String[16];
+    private int[] offsets = new int[16];
+    private int[] lengths = new int[16];
+    private int size;
+
+    void add(String key, int offset, int length) {
+      if (size == keys.length) {
+        int capacity = size * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+      }
+      keys[size] = key;
+      offsets[size] = offset;
+      lengths[size] = length;
+      size++;
+    }
+
+    void addNull(String key) {
+      add(key, NULL_RECORD, 0);
+    }
+
+    LazyRecordMap<V> build(RecordDecoder<V> decoder) {
+      return new LazyRecordMap<>(keys, offsets, lengths, size, decoder);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only view of a base map with some keys replaced or removed, used to apply a delta update
+ * without copying the unchanged entries. The base map is shared, not copied, so a lazily parsed
+ * base keeps decoding its records on first access. Overlays are never stacked: applying changes to
+ * an overlay folds them into a new overlay over the same base.
+ *
+ * @param <V> value type
+ */
+final class OverlayRecordMap<V> extends AbstractMap<String, V> {
+
+  private final Map<String, V> base;
+  // Added or replaced entries; disjoint from removed
+  private final Map<String, V> changes;
+  // Keys of the base that are hidden; each is present in the base
+  private final Set<String> removed;
+  private final int size;
+
+  private OverlayRecordMap(Map<String, V> base, Map<String, V> changes, Set<String> removed) {
+    this.base = base;
+    this.changes = changes;
+    this.removed = removed;
+    int added = 0;
+    for (String key : changes.keySet()) {
+      if (!base.containsKey(key)) {
+        added++;
+      }
+    }
+    this.size = base.size() - removed.size() + added;
+  }
+
+  /**
+   * Returns a view of {@code base} with {@code changed} entries added or replaced and {@code
+   * removed} keys dropped. Neither argument map is modified.
+   */
+  static <V> Map<String, V> of(
+      Map<String, V> base, Map<String, ? extends V> changed, Collection<String> removed) {
+    if (changed.isEmpty() && removed.isEmpty()) {
+      return base;
+    }
+    Map<String, V> root = base;
+    Map<String, V> changes = new LinkedHashMap<>();
+    Set<String> hidden = new HashSet<>();
+    if (base instanceof OverlayRecordMap) {
+      OverlayRecordMap<V> overlay = (OverlayRecordMap<V>) base;
+      root = overlay.base;
+      changes.putAll(overlay.changes);
+      hidden.addAll(overlay.removed);
+    }
+    for (String key : removed) {
+      changes.remove(key);
+      if (root.containsKey(key)) {
+        hidden.add(key);
+      }
+    }
+    changes.putAll(changed);
+    hidden.removeAll(changed.keySet());
+    return new OverlayRecordMap<>(root, changes, hidden);
+  }
+
+  /** Returns whether the base map decodes its records on first access. */
+  boolean isLazy() {
+    return base instanceof LazyRecordMap;
+  }
+
+  /** Returns the number of keys whose value is not null, without decoding lazy base records. */
+  int nonNullSize() {
+    int count = nonNullSize(base);
+    for (String key : removed) {
+      if (hasNonNullValue(base, key)) {
+        count--;
+      }
+    }
+    for (Map.Entry<String, V> entry : changes.entrySet()) {
+      if (hasNonNullValue(base, entry.getKey())) {
+        count--;
+      }
+      if (entry.getValue() != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static int nonNullSize(Map<String, ?> map) {
+    if (map instanceof LazyRecordMap) {
+      return ((LazyRecordMap<?>) map).nonNullSize();
+    }
+    int count = 0;
+    for (Object value : map.values()) {
+      if (value != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static boolean hasNonNullValue(Map<String, ?> map, String key) {
+    if (map instanceof LazyRecordMap) {
+      return ((LazyRecordMap<?>) map).hasNonNullValue(key);
+    }
+    return map.get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return changes.containsKey(key) || (!removed.contains(key) && base.containsKey(key));
+  }
+
+  @Override
+  @Nullable public V get(Object key) {
+    if (changes.containsKey(key)) {
+      return changes.get(key);
+    }
+    return removed.contains(key) ? null : base.get(key);
+  }
+
+  @NonNull @Override
+  public Set<Entry<String, V>> entrySet() {
+    return new AbstractSet<Entry<String, V>>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @NonNull @Override
+      public Iterator<Entry<String, V>> iterator() {
+        return new Iterator<Entry<String, V>>() {
+          // Unchanged base entries in base order, then the changes
+          private final Iterator<Entry<String, V>> baseEntries = base.entrySet().iterator();
+          private final Iterator<Entry<String, V>> changedEntries = changes.entrySet().iterator();
+          @Nullable private Entry<String, V> next = advance();
+
+          @Override
+          public boolean hasNext() {
+            return next != null;
+          }
+
+          @Override
+          public Entry<String, V> next() {
+            if (next == null) {
+              throw new NoSuchElementException();
+            }
+            Entry<String, V> entry = next;
+            next = advance();
+            return entry;
+          }
+
+          @Nullable private Entry<String, V> advance() {
+            while (baseEntries.hasNext()) {
+              Entry<String, V> entry = baseEntries.next();
+              if (!changes.containsKey(entry.getKey()) && !removed.contains(entry.getKey())) {
+                return entry;
+              }
+            }
+            return changedEntries.hasNext() ? changedEntries.next() : null;
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,407 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of a {@link PrecomputedConfigurationResponse} used for the on-disk cache.
+ *
+ * <p>Layout (all integers big-endian):
+ *
+ * <pre>
+ *   magic "EPPC" | version int
+ *   header:  format str | createdAt str | environment str | salt str | obfuscated byte
+ *   flags:   count int, then per flag
+ *            key str | type byte [str if TYPE_OTHER] | allocationKey str | variationKey str
+ *            | variationValue str | doLog byte | extraLogging map
+ *   bandits: count int, then per bandit
+ *            key str | banditKey str | action str | modelVersion str | numeric map
+ *            | categorical map | actionProbability double | optimalityGap double
+ * </pre>
+ *
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes; maps are an int entry count
+ * (-1 for null) followed by key and value strings. Decoding is a single pass over the bytes with no
+ * JSON parser involved.
+ */
+final class PrecomputedBinaryFormat {
+
+  // "EPPC"; cannot be mistaken for JSON, which starts with '{' or whitespace
+  private static final int MAGIC = 0x45505043;
+  static final int VERSION = 1;
+
+  private static final byte TYPE_NULL = 0;
+  private static final byte TYPE_STRING = 1;
+  private static final byte TYPE_BOOLEAN = 2;
+  private static final byte TYPE_INTEGER = 3;
+  private static final byte TYPE_NUMERIC = 4;
+  private static final byte TYPE_JSON = 5;
+  private static final byte TYPE_OTHER = 127;
+
+  private PrecomputedBinaryFormat() {}
+
+  /** Returns whether the buffer's remaining bytes start with the binary format's magic number. */
+  static boolean isBinary(ByteBuffer buffer) {
+    return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+  }
+
+  static byte[] encode(PrecomputedConfigurationResponse response) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+
+    writeString(out, response.getFormat());
+    writeString(out, response.getCreatedAt());
+    writeString(out, response.getEnvironmentName());
+    writeString(out, response.getSalt());
+    out.writeBoolean(response.isObfuscated());
+
+    // Entries with null values carry nothing to look up, so they are left out
+    out.writeInt(countNonNull(response.getFlags()));
+    for (Map.Entry<String, PrecomputedFlag> entry : response.getFlags().entrySet()) {
+      PrecomputedFlag flag = entry.getValue();
+      if (flag == null) {
+        continue;
+      }
+      writeString(out, entry.getKey());
+      byte type = typeCode(flag.getVariationType());
+      out.writeByte(type);
+      if (type == TYPE_OTHER) {
+        writeString(out, flag.getVariationType());
+      }
+      writeString(out, flag.getAllocationKey());
+      writeString(out, flag.getVariationKey());
+      writeString(out, flag.getVariationValue());
+      out.writeBoolean(flag.isDoLog());
+      writeMap(out, flag.getExtraLogging());
+    }
+
+    out.writeInt(countNonNull(response.getBandits()));
+    for (Map.Entry<String, PrecomputedBandit> entry : response.getBandits().entrySet()) {
+      PrecomputedBandit bandit = entry.getValue();
+      if (bandit == null) {
+        continue;
+      }
+      writeString(out, entry.getKey());
+      writeString(out, bandit.getBanditKey());
+      writeString(out, bandit.getAction());
+      writeString(out, bandit.getModelVersion());
+      writeMap(out, bandit.getActionNumericAttributes());
+      writeMap(out, bandit.getActionCategoricalAttributes());
+      out.writeDouble(bandit.getActionProbability());
+      out.writeDouble(bandit.getOptimalityGap());
+    }
+
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes the remaining bytes of a buffer holding the output of {@link #encode}. The buffer may
+   * be direct or memory-mapped; its position is advanced past the decoded bytes.
+   *
+   * <p>When {@code lazy} is set, flag and bandit records are only indexed and are decoded from the
+   * buffer on first access, so the buffer is retained by the returned configuration.
+   *
+   * @throws IOException if the bytes are not in this format, are of an unsupported version, or are
+   *     truncated
+   */
+  static PrecomputedConfigurationResponse decode(ByteBuffer buffer, boolean lazy)
+      throws IOException {
+    Reader in = new Reader(buffer.order(ByteOrder.BIG_ENDIAN));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a binary precomputed configuration");
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported precomputed cache format version " + version);
+      }
+
+      String format = in.readString();
+      String createdAt = in.readString();
+      String environmentName = in.readString();
+      String salt = in.readString();
+      boolean obfuscated = in.readBoolean();
+
+      Map<String, PrecomputedFlag> flags;
+      Map<String, PrecomputedBandit> bandits;
+      if (lazy) {
+        ByteBuffer records = buffer.duplicate();
+        flags = indexRecords(in, records, PrecomputedBinaryFormat::readFlag);
+        bandits = indexRecords(in, records, PrecomputedBinaryFormat::readBandit);
+      } else {
+        flags = readRecords(in, PrecomputedBinaryFormat::readFlag);
+        bandits = readRecords(in, PrecomputedBinaryFormat::readBandit);
+      }
+
+      return new PrecomputedConfigurationResponse(
+          format, obfuscated, createdAt, salt, environmentName, flags, bandits);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Truncated or corrupt binary precomputed configuration", e);
+    }
+  }
+
+  /** Reads one flag or bandit record, advancing past it. */
+  private interface RecordReader<V> {
+    V read(Reader in) throws IOException;
+  }
+
+  private static <V> Map<String, V> readRecords(Reader in, RecordReader<V> recordReader)
+      throws IOException {
+    int count = in.readCount();
+    Map<String, V> records = new HashMap<>(capacityFor(count));
+    for (int i = 0; i < count; i++) {
+      String key = in.readString();
+      records.put(key, recordReader.read(in));
+    }
+    return records;
+  }
+
+  private static <V> Map<String, V> indexRecords(
+      Reader in, ByteBuffer source, RecordReader<V> recordReader) throws IOException {
+    int count = in.readCount();
+    LazyRecordMap.Builder<V> records = new LazyRecordMap.Builder<>();
+    for (int i = 0; i < count; i++) {
+      String key = in.readString();
+      int start = in.position();
+      // Skipping runs the same bounds checks as decoding, so a truncated file fails here
+      in.setSkipping(true);
+      recordReader.read(in);
+      in.setSkipping(false);
+      records.add(key, start, in.position() - start);
+    }
+    return records.build(
+        (offset, length) -> {
+          ByteBuffer record = source.duplicate();
+          record.position(offset);
+          record.limit(offset + length);
+          return recordReader.read(new Reader(record));
+        });
+  }
+
+  @Nullable private static PrecomputedFlag readFlag(Reader in) throws IOException {
+    byte type = in.readByte();
+    String variationType = type == TYPE_OTHER ? in.readString() : typeName(type);
+    String allocationKey = in.readString();
+    String variationKey = in.readString();
+    String variationValue = in.readString();
+    boolean doLog = in.readBoolean();
+    Map<String, String> extraLogging = in.readMap();
+    if (in.isSkipping()) {
+      return null;
+    }
+    return new PrecomputedFlag(
+        allocationKey, variationKey, variationType, variationValue, extraLogging, doLog);
+  }
+
+  @Nullable private static PrecomputedBandit readBandit(Reader in) throws IOException {
+    String banditKey = in.readString();
+    String action = in.readString();
+    String modelVersion = in.readString();
+    Map<String, String> numericAttributes = in.readMap();
+    Map<String, String> categoricalAttributes = in.readMap();
+    double actionProbability = in.readDouble();
+    double optimalityGap = in.readDouble();
+    if (in.isSkipping()) {
+      return null;
+    }
+    return new PrecomputedBandit(
+        banditKey,
+        action,
+        modelVersion,
+        numericAttributes,
+        categoricalAttributes,
+        actionProbability,
+        optimalityGap);
+  }
+
+  private static byte typeCode(@Nullable String variationType) {
+    if (variationType == null) {
+      return TYPE_NULL;
+    }
+    // Only exact spellings get a code, so decoding reproduces the wire value verbatim
+    switch (variationType) {
+      case "STRING":
+        return TYPE_STRING;
+      case "BOOLEAN":
+        return TYPE_BOOLEAN;
+      case "INTEGER":
+        return TYPE_INTEGER;
+      case "NUMERIC":
+        return TYPE_NUMERIC;
+      case "JSON":
+        return TYPE_JSON;
+      default:
+        return TYPE_OTHER;
+    }
+  }
+
+  @Nullable private static String typeName(byte type) throws IOException {
+    switch (type) {
+      case TYPE_NULL:
+        return null;
+      case TYPE_STRING:
+        return "STRING";
+      case TYPE_BOOLEAN:
+        return "BOOLEAN";
+      case TYPE_INTEGER:
+        return "INTEGER";
+      case TYPE_NUMERIC:
+        return "NUMERIC";
+      case TYPE_JSON:
+        return "JSON";
+      default:
+        throw new IOException("Unknown variation type code " + type);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(utf8.length);
+    out.write(utf8);
+  }
+
+  private static void writeMap(DataOutputStream out, @Nullable Map<String, String> map)
+      throws IOException {
+    if (map == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static int countNonNull(Map<String, ?> map) {
+    if (map instanceof LazyRecordMap) {
+      // Avoids decoding every record just to count them
+      return ((LazyRecordMap<?>) map).nonNullSize();
+    }
+    if (map instanceof OverlayRecordMap) {
+      return ((OverlayRecordMap<?>) map).nonNullSize();
+    }
+    int count = 0;
+    for (Object value : map.values()) {
+      if (value != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static int capacityFor(int size) {
+    return (int) (size / 0.75f) + 1;
+  }
+
+  /**
+   * Sequential reader over the encoded bytes. While skipping, strings and maps are stepped over
+   * rather than decoded and read as null.
+   */
+  private static final class Reader {
+    private final ByteBuffer buffer;
+    private boolean skipping;
+    // Strings are copied through this when the buffer has no accessible backing array
+    @Nullable private byte[] scratch;
+
+    Reader(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    int position() {
+      return buffer.position();
+    }
+
+    boolean isSkipping() {
+      return skipping;
+    }
+
+    void setSkipping(boolean skipping) {
+      this.skipping = skipping;
+    }
+
+    int readInt() {
+      return buffer.getInt();
+    }
+
+    byte readByte() {
+      return buffer.get();
+    }
+
+    boolean readBoolean() {
+      return buffer.get() != 0;
+    }
+
+    double readDouble() {
+      return buffer.getDouble();
+    }
+
+    @Nullable String readString() throws IOException {
+      int length = buffer.getInt();
+      if (length < 0) {
+        return null;
+      }
+      if (length > buffer.remaining()) {
+        throw new IOException("String length " + length + " exceeds remaining bytes");
+      }
+      if (skipping) {
+        buffer.position(buffer.position() + length);
+        return null;
+      }
+      if (buffer.hasArray()) {
+        int start = buffer.arrayOffset() + buffer.position();
+        buffer.position(buffer.position() + length);
+        return new String(buffer.array(), start, length, StandardCharsets.UTF_8);
+      }
+      if (scratch == null || scratch.length < length) {
+        scratch = new byte[Math.max(length, 256)];
+      }
+      buffer.get(scratch, 0, length);
+      return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Nullable Map<String, String> readMap() throws IOException {
+      int size = buffer.getInt();
+      if (size < 0) {
+        return null;
+      }
+      if (size > buffer.remaining()) {
+        throw new IOException("Invalid entry count " + size);
+      }
+      if (skipping) {
+        for (int i = 0; i < size * 2; i++) {
+          readString();
+        }
+        return null;
+      }
+      Map<String, String> map = new HashMap<>(capacityFor(size));
+      for (int i = 0; i < size; i++) {
+        map.put(readString(), readString());
+      }
+      return map;
+    }
+
+    int readCount() throws IOException {
+      int count = buffer.getInt();
+      // Every entry takes at least one byte, which bounds counts read from a corrupt file
+      if (count < 0 || count > buffer.remaining()) {
+        throw new IOException("Invalid entry count " + count);
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire protocol response from the precomputed edge endpoint carrying only what changed since the
+ * configuration the client reported. Its flags and bandits are the added or updated entries, keyed
+ * by MD5-hashed key as in a full response, and the removed keys are listed separately.
+ */
+public class PrecomputedConfigurationDelta extends PrecomputedConfigurationResponse {
+
+  /** Format of delta responses, distinguishing them from full responses. */
+  public static final String FORMAT = "PRECOMPUTED_DELTA";
+
+  private final String baseCreatedAt;
+  private final List<String> removedFlags;
+  private final List<String> removedBandits;
+
+  PrecomputedConfigurationDelta(
+      String format,
+      boolean obfuscated,
+      String createdAt,
+      String salt,
+      @Nullable String environmentName,
+      @Nullable Map<String, PrecomputedFlag> flags,
+      @Nullable Map<String, PrecomputedBandit> bandits,
+      String baseCreatedAt,
+      @Nullable List<String> removedFlags,
+      @Nullable List<String> removedBandits) {
+    super(format, obfuscated, createdAt, salt, environmentName, flags, bandits);
+    this.baseCreatedAt = baseCreatedAt;
+    this.removedFlags = removedFlags != null ? removedFlags : Collections.emptyList();
+    this.removedBandits = removedBandits != null ? removedBandits : Collections.emptyList();
+  }
+
+  /** Returns the creation timestamp of the configuration this delta was computed against. */
+  public String getBaseCreatedAt() {
+    return baseCreatedAt;
+  }
+
+  /** Returns the MD5-hashed keys of flags removed since the base configuration. */
+  public List<String> getRemovedFlags() {
+    return removedFlags;
+  }
+
+  /** Returns the MD5-hashed keys of bandits removed since the base configuration. */
+  public List<String> getRemovedBandits() {
+    return removedBandits;
+  }
+
+  /**
+   * Returns whether this delta was computed against {@code base}: the base must have the reported
+   * creation timestamp and, if the delta carries a salt, the same salt, since hashed keys differ
+   * between salts.
+   */
+  public boolean appliesTo(@NonNull PrecomputedConfigurationResponse base) {
+    String salt = getSalt();
+    return baseCreatedAt != null
+        && !baseCreatedAt.isEmpty()
+        && baseCreatedAt.equals(base.getCreatedAt())
+        && (salt == null || salt.isEmpty() || salt.equals(base.getSalt()));
+  }
+
+  /**
+   * Applies this delta to the configuration it was computed against. Neither is modified; the
+   * result shares the unchanged flags and bandits of {@code base} instead of copying them, so a
+   * lazily parsed base stays lazy.
+   *
+   * @param base Configuration the delta was computed against
+   * @return The updated configuration
+   * @throws IllegalArgumentException if this delta does not apply to {@code base}
+   */
+  @NonNull public PrecomputedConfigurationResponse applyTo(@NonNull PrecomputedConfigurationResponse base) {
+    if (!appliesTo(base)) {
+      throw new IllegalArgumentException(
+          "Delta for configuration created at "
+              + baseCreatedAt
+              + " does not apply to configuration created at "
+              + base.getCreatedAt());
+    }
+    String environmentName = getEnvironmentName();
+    return new PrecomputedConfigurationResponse(
+        base.getFormat(),
+        base.isObfuscated(),
+        getCreatedAt(),
+        base.getSalt(),
+        environmentName != null ? environmentName : base.getEnvironmentName(),
+        OverlayRecordMap.of(base.getFlags(), getFlags(), removedFlags),
+        OverlayRecordMap.of(base.getBandits(), getBandits(), removedBandits));
+  }
+}
@@ -6,9 +6,14 @@ import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Map;
 
@@ -20,7 +25,7 @@ public class PrecomputedConfigurationResponse {
 
   private static final PrecomputedConfigurationResponse EMPTY =
       new PrecomputedConfigurationResponse(
-          "PRECOMPUTED", true, "", null, "", Collections.emptyMap(), Collections.emptyMap());
+          "PRECOMPUTED", true, "", "", null, Collections.emptyMap(), Collections.emptyMap());
 
   private final String format;
   private final boolean obfuscated;
@@ -39,10 +44,22 @@ public class PrecomputedConfigurationResponse {
       @JsonProperty("salt") String salt,
       @JsonProperty("flags") @Nullable Map<String, PrecomputedFlag> flags,
       @JsonProperty("bandits") @Nullable Map<String, PrecomputedBandit> bandits) {
+    this(format, obfuscated, createdAt, salt, extractEnvironmentName(environment), flags, bandits);
+  }
+
+  /** Used by the binary cache format, which stores the environment name directly. */
+  PrecomputedConfigurationResponse(
+      String format,
+      boolean obfuscated,
+      String createdAt,
+      String salt,
+      @Nullable String environmentName,
+      @Nullable Map<String, PrecomputedFlag> flags,
+      @Nullable Map<String, PrecomputedBandit> bandits) {
     this.format = format;
     this.obfuscated = obfuscated;
     this.createdAt = createdAt;
-    this.environmentName = extractEnvironmentName(environment);
+    this.environmentName = environmentName;
     this.salt = salt;
     this.flags = flags != null ? flags : Collections.emptyMap();
     this.bandits = bandits != null ? bandits : Collections.emptyMap();
@@ -106,6 +123,17 @@ public class PrecomputedConfigurationResponse {
     return bandits;
   }
 
+  /** Returns whether flags and bandits are decoded on first access rather than up front. */
+  @JsonIgnore
+  public boolean isLazy() {
+    return isLazy(flags) || isLazy(bandits);
+  }
+
+  private static boolean isLazy(Map<String, ?> records) {
+    return records instanceof LazyRecordMap
+        || (records instanceof OverlayRecordMap && ((OverlayRecordMap<?>) records).isLazy());
+  }
+
   /** Returns a singleton empty configuration response. */
   public static PrecomputedConfigurationResponse empty() {
     return EMPTY;
@@ -119,8 +147,46 @@ public class PrecomputedConfigurationResponse {
    * @throws RuntimeException if parsing fails
    */
   public static PrecomputedConfigurationResponse fromBytes(byte[] bytes) {
+    return fromBytes(bytes, false);
+  }
+
+  /**
+   * Parses a JSON byte array into a PrecomputedConfigurationResponse, optionally in lazy mode. In
+   * lazy mode only flag and bandit keys are indexed up front; each flag or bandit is parsed from
+   * {@code bytes} the first time it is read and then memoized, so parse time and retained objects
+   * scale with the flags actually used. The array is retained and must not be modified.
+   *
+   * @param bytes JSON byte array
+   * @param lazy Whether to defer parsing flags and bandits until they are read
+   * @return Parsed response
+   * @throws RuntimeException if parsing fails
+   */
+  public static PrecomputedConfigurationResponse fromBytes(byte[] bytes, boolean lazy) {
     try {
-      return objectMapper.readValue(bytes, PrecomputedConfigurationResponse.class);
+      if (lazy) {
+        return PrecomputedJsonReader.readLazily(bytes);
+      }
+      try (JsonParser parser = objectMapper.getFactory().createParser(bytes)) {
+        return PrecomputedJsonReader.read(parser);
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Failed to parse precomputed configuration", e);
+    }
+  }
+
+  /**
+   * Parses JSON from a stream into a PrecomputedConfigurationResponse. Flags and bandits are built
+   * as the stream is read, so the payload is never held in memory as a whole. The stream is not
+   * closed.
+   *
+   * @param inputStream JSON input
+   * @return Parsed response
+   * @throws RuntimeException if reading or parsing fails
+   */
+  public static PrecomputedConfigurationResponse fromStream(InputStream inputStream) {
+    try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+      parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      return PrecomputedJsonReader.read(parser);
     } catch (Exception e) {
       throw new RuntimeException("Failed to parse precomputed configuration", e);
     }
@@ -139,4 +205,67 @@ public class PrecomputedConfigurationResponse {
       throw new RuntimeException("Failed to serialize precomputed configuration", e);
     }
   }
+
+  /**
+   * Parses the contents of a precomputed cache file. Files in the binary cache format are decoded
+   * without Jackson; anything else is treated as JSON written by earlier SDK versions.
+   *
+   * @param bytes Cache file contents
+   * @return Parsed response
+   * @throws RuntimeException if parsing fails
+   */
+  public static PrecomputedConfigurationResponse fromCacheBytes(byte[] bytes) {
+    if (!PrecomputedBinaryFormat.isBinary(ByteBuffer.wrap(bytes))) {
+      return fromBytes(bytes);
+    }
+    return fromCacheBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Parses the contents of a precomputed cache file from its remaining bytes in {@code buffer},
+   * which may be a memory-mapped file. Binary records are decoded directly from the buffer without
+   * copying the file onto the heap first.
+   *
+   * @param buffer Cache file contents
+   * @return Parsed response
+   * @throws RuntimeException if parsing fails
+   */
+  public static PrecomputedConfigurationResponse fromCacheBuffer(ByteBuffer buffer) {
+    return fromCacheBuffer(buffer, false);
+  }
+
+  /**
+   * Parses the contents of a precomputed cache file, optionally in lazy mode. In lazy mode, binary
+   * flag and bandit records are decoded from {@code buffer} on first access, so the buffer is
+   * retained. Legacy JSON cache files are always parsed eagerly.
+   *
+   * @param buffer Cache file contents
+   * @param lazy Whether to defer decoding flags and bandits until they are read
+   * @return Parsed response
+   * @throws RuntimeException if parsing fails
+   */
+  public static PrecomputedConfigurationResponse fromCacheBuffer(ByteBuffer buffer, boolean lazy) {
+    if (!PrecomputedBinaryFormat.isBinary(buffer)) {
+      return fromStream(new ByteBufferBackedInputStream(buffer));
+    }
+    try {
+      return PrecomputedBinaryFormat.decode(buffer, lazy);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse precomputed configuration", e);
+    }
+  }
+
+  /**
+   * Serializes this response in the binary cache format read by {@link #fromCacheBytes(byte[])}.
+   *
+   * @return Binary cache file contents
+   * @throws RuntimeException if serialization fails
+   */
+  public byte[] toCacheBytes() {
+    try {
+      return PrecomputedBinaryFormat.encode(this);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to serialize precomputed configuration", e);
+    }
+  }
 }
@@ -0,0 +1,357 @@
+package cloud.eppo.android.dto;
+
+import androidx.annotation.Nullable;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a precomputed configuration with Jackson's streaming {@link JsonParser}, building flags and
+ * bandits as their tokens arrive. Unlike data binding, no intermediate tree or reflective bean
+ * construction is involved and the input never has to be buffered as a whole. Field handling
+ * matches the {@code @JsonCreator} bindings of the DTOs: unknown fields are skipped, scalars are
+ * coerced to strings where a string is expected, and absent fields take their Java defaults.
+ *
+ * <p>A payload whose format is {@link PrecomputedConfigurationDelta#FORMAT} is read as a {@link
+ * PrecomputedConfigurationDelta}, which additionally carries its base and the removed keys.
+ *
+ * <p>In lazy mode, flags and bandits are only indexed: each record's byte range in the payload is
+ * noted while its tokens are skipped, and the record is parsed when it is first read.
+ */
+final class PrecomputedJsonReader {
+
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
+  /** Reads one flag or bandit record whose opening token has been consumed. */
+  private interface RecordReader<V> {
+    V read(JsonParser parser, JsonToken value) throws IOException;
+  }
+
+  private PrecomputedJsonReader() {}
+
+  /** Reads one configuration object from the parser, which is closed by the caller. */
+  static PrecomputedConfigurationResponse read(JsonParser parser) throws IOException {
+    return read(parser, null);
+  }
+
+  /**
+   * Reads one configuration object from a payload held in memory, indexing flags and bandits so
+   * that each is parsed from {@code payload} only when first accessed. The payload is retained by
+   * the returned configuration and must not be modified.
+   */
+  static PrecomputedConfigurationResponse readLazily(byte[] payload) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(payload)) {
+      return read(parser, payload);
+    }
+  }
+
+  private static PrecomputedConfigurationResponse read(
+      JsonParser parser, @Nullable byte[] lazyPayload) throws IOException {
+    expectStartObject(parser, parser.nextToken());
+
+    String format = null;
+    boolean obfuscated = false;
+    String createdAt = null;
+    String environmentName = null;
+    String salt = null;
+    Map<String, PrecomputedFlag> flags = null;
+    Map<String, PrecomputedBandit> bandits = null;
+    String baseCreatedAt = null;
+    List<String> removedFlags = null;
+    List<String> removedBandits = null;
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "format":
+          format = readString(parser, value);
+          break;
+        case "obfuscated":
+          obfuscated = readBoolean(parser, value);
+          break;
+        case "createdAt":
+          createdAt = readString(parser, value);
+          break;
+        case "environment":
+          environmentName = readEnvironmentName(parser, value);
+          break;
+        case "salt":
+          salt = readString(parser, value);
+          break;
+        case "flags":
+          flags =
+              lazyPayload != null
+                  ? indexRecords(parser, value, lazyPayload, PrecomputedJsonReader::readFlag)
+                  : readFlags(parser, value);
+          break;
+        case "bandits":
+          bandits =
+              lazyPayload != null
+                  ? indexRecords(parser, value, lazyPayload, PrecomputedJsonReader::readBandit)
+                  : readBandits(parser, value);
+          break;
+        case "baseCreatedAt":
+          baseCreatedAt = readString(parser, value);
+          break;
+        case "removedFlags":
+          removedFlags = readStringList(parser, value);
+          break;
+        case "removedBandits":
+          removedBandits = readStringList(parser, value);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    if (PrecomputedConfigurationDelta.FORMAT.equals(format)) {
+      return new PrecomputedConfigurationDelta(
+          format,
+          obfuscated,
+          createdAt,
+          salt,
+          environmentName,
+          flags,
+          bandits,
+          baseCreatedAt,
+          removedFlags,
+          removedBandits);
+    }
+    return new PrecomputedConfigurationResponse(
+        format, obfuscated, createdAt, salt, environmentName, flags, bandits);
+  }
+
+  @Nullable private static String readEnvironmentName(JsonParser parser, JsonToken value) throws IOException {
+    if (value == JsonToken.START_OBJECT) {
+      String name = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken fieldValue = parser.nextToken();
+        if ("name".equals(field)) {
+          // Matches JsonNode.asText(): "null" for null and "" for containers
+          name = fieldValue.isStructStart() ? "" : parser.getText();
+        }
+        parser.skipChildren();
+      }
+      return name;
+    }
+    if (value == JsonToken.VALUE_STRING) {
+      return parser.getText();
+    }
+    parser.skipChildren();
+    return null;
+  }
+
+  @Nullable private static Map<String, PrecomputedFlag> readFlags(JsonParser parser, JsonToken value)
+      throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    expectStartObject(parser, value);
+    Map<String, PrecomputedFlag> flags = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      JsonToken flagValue = parser.nextToken();
+      flags.put(key, flagValue == JsonToken.VALUE_NULL ? null : readFlag(parser, flagValue));
+    }
+    return flags;
+  }
+
+  private static PrecomputedFlag readFlag(JsonParser parser, JsonToken value) throws IOException {
+    expectStartObject(parser, value);
+    String allocationKey = null;
+    String variationKey = null;
+    String variationType = null;
+    String variationValue = null;
+    Map<String, String> extraLogging = null;
+    boolean doLog = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken fieldValue = parser.nextToken();
+      switch (field) {
+        case "allocationKey":
+          allocationKey = readString(parser, fieldValue);
+          break;
+        case "variationKey":
+          variationKey = readString(parser, fieldValue);
+          break;
+        case "variationType":
+          variationType = readString(parser, fieldValue);
+          break;
+        case "variationValue":
+          variationValue = readString(parser, fieldValue);
+          break;
+        case "extraLogging":
+          extraLogging = readStringMap(parser, fieldValue);
+          break;
+        case "doLog":
+          doLog = readBoolean(parser, fieldValue);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new PrecomputedFlag(
+        allocationKey, variationKey, variationType, variationValue, extraLogging, doLog);
+  }
+
+  @Nullable private static Map<String, PrecomputedBandit> readBandits(JsonParser parser, JsonToken value)
+      throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    expectStartObject(parser, value);
+    Map<String, PrecomputedBandit> bandits = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      JsonToken banditValue = parser.nextToken();
+      bandits.put(
+          key, banditValue == JsonToken.VALUE_NULL ? null : readBandit(parser, banditValue));
+    }
+    return bandits;
+  }
+
+  private static PrecomputedBandit readBandit(JsonParser parser, JsonToken value)
+      throws IOException {
+    expectStartObject(parser, value);
+    String banditKey = null;
+    String action = null;
+    String modelVersion = null;
+    Map<String, String> numericAttributes = null;
+    Map<String, String> categoricalAttributes = null;
+    double actionProbability = 0;
+    double optimalityGap = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken fieldValue = parser.nextToken();
+      switch (field) {
+        case "banditKey":
+          banditKey = readString(parser, fieldValue);
+          break;
+        case "action":
+          action = readString(parser, fieldValue);
+          break;
+        case "modelVersion":
+          modelVersion = readString(parser, fieldValue);
+          break;
+        case "actionNumericAttributes":
+          numericAttributes = readStringMap(parser, fieldValue);
+          break;
+        case "actionCategoricalAttributes":
+          categoricalAttributes = readStringMap(parser, fieldValue);
+          break;
+        case "actionProbability":
+          actionProbability = readDouble(parser, fieldValue);
+          break;
+        case "optimalityGap":
+          optimalityGap = readDouble(parser, fieldValue);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return new PrecomputedBandit(
+        banditKey,
+        action,
+        modelVersion,
+        numericAttributes,
+        categoricalAttributes,
+        actionProbability,
+        optimalityGap);
+  }
+
+  @Nullable private static <V> Map<String, V> indexRecords(
+      JsonParser parser, JsonToken value, byte[] payload, RecordReader<V> recordReader)
+      throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    expectStartObject(parser, value);
+    LazyRecordMap.Builder<V> records = new LazyRecordMap.Builder<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      JsonToken recordValue = parser.nextToken();
+      if (recordValue == JsonToken.VALUE_NULL) {
+        records.addNull(key);
+        continue;
+      }
+      expectStartObject(parser, recordValue);
+      int start = (int) parser.currentTokenLocation().getByteOffset();
+      parser.skipChildren();
+      int end = (int) parser.currentLocation().getByteOffset();
+      records.add(key, start, end - start);
+    }
+    return records.build(
+        (offset, length) -> {
+          try (JsonParser recordParser = jsonFactory.createParser(payload, offset, length)) {
+            return recordReader.read(recordParser, recordParser.nextToken());
+          }
+        });
+  }
+
+  @Nullable private static Map<String, String> readStringMap(JsonParser parser, JsonToken value)
+      throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    expectStartObject(parser, value);
+    Map<String, String> map = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      map.put(key, readString(parser, parser.nextToken()));
+    }
+    return map;
+  }
+
+  @Nullable private static List<String> readStringList(JsonParser parser, JsonToken value)
+      throws IOException {
+    if (value == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (value != JsonToken.START_ARRAY) {
+      throw new IOException(
+          "Expected a JSON array but found " + value + " at " + parser.currentLocation());
+    }
+    List<String> list = new ArrayList<>();
+    JsonToken element;
+    while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+      list.add(readString(parser, element));
+    }
+    return list;
+  }
+
+  @Nullable private static String readString(JsonParser parser, JsonToken value) throws IOException {
+    expectScalar(parser, value);
+    return parser.getValueAsString();
+  }
+
+  private static boolean readBoolean(JsonParser parser, JsonToken value) throws IOException {
+    expectScalar(parser, value);
+    return parser.getValueAsBoolean();
+  }
+
+  private static double readDouble(JsonParser parser, JsonToken value) throws IOException {
+    expectScalar(parser, value);
+    return parser.getValueAsDouble();
+  }
+
+  private static void expectScalar(JsonParser parser, JsonToken token) throws IOException {
+    if (token.isStructStart()) {
+      throw new IOException(
+          "Expected a scalar value but found " + token + " at " + parser.currentLocation());
+    }
+  }
+
+  private static void expectStartObject(JsonParser parser, @Nullable JsonToken token)
+      throws IOException {
+    if (token != JsonToken.START_OBJECT) {
+      throw new IOException(
+          "Expected a JSON object but found " + token + " at " + parser.currentLocation());
+    }
+  }
+}
@@ -0,0 +1,203 @@
+package cloud.eppo.android.logging;
+
+import static cloud.eppo.android.util.Utils.logTag;
+
+import android.os.Process;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers logging callbacks on a single background thread so that slow assignment and bandit
+ * loggers do not add latency to the thread requesting an assignment. Events are queued in a {@link
+ * BoundedRingBuffer}; when it is full the configured {@link OverflowPolicy} decides whether an
+ * event is dropped or the caller waits. Dropped events are counted and exposed through {@link
+ * #getDroppedEventCount()}.
+ *
+ * <p>Events are delivered in the order they were accepted. After {@link #shutdown()}, queued events
+ * are still delivered and new events run on the calling thread.
+ */
+public final class AsyncLogDispatcher {
+
+  private static final String TAG = logTag(AsyncLogDispatcher.class);
+  public static final int DEFAULT_CAPACITY = 1024;
+  // How long a blocked producer sleeps between attempts to find a free slot
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long FLUSH_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final BoundedRingBuffer<Runnable> buffer;
+  private final OverflowPolicy overflowPolicy;
+  private final Thread drainThread;
+  private final AtomicLong acceptedEvents = new AtomicLong();
+  private final AtomicLong deliveredEvents = new AtomicLong();
+  // Accepted events that have left the buffer, whether delivered or evicted by DROP_OLDEST
+  private final AtomicLong retiredEvents = new AtomicLong();
+  private final AtomicLong droppedEvents = new AtomicLong();
+
+  // Set by the drain thread just before it parks, so producers only pay for unpark when needed
+  private volatile boolean drainerWaiting;
+  private volatile boolean shutdown;
+
+  /** Creates a dispatcher with {@link #DEFAULT_CAPACITY} slots that drops the oldest event. */
+  public AsyncLogDispatcher() {
+    this(DEFAULT_CAPACITY, OverflowPolicy.DROP_OLDEST);
+  }
+
+  /**
+   * @param capacity Maximum number of pending events; rounded up to a power of two
+   * @param overflowPolicy What to do with a new event when {@code capacity} events are pending
+   */
+  public AsyncLogDispatcher(int capacity, @NonNull OverflowPolicy overflowPolicy) {
+    this.buffer = new BoundedRingBuffer<>(capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.drainThread = new Thread(this::drain, "eppo-log-dispatcher");
+    drainThread.setDaemon(true);
+    drainThread.start();
+  }
+
+  /**
+   * Queues a logging callback for delivery on the dispatcher thread.
+   *
+   * @return false if the event was dropped because the buffer was full
+   */
+  public boolean dispatch(@NonNull Runnable event) {
+    if (shutdown) {
+      deliver(event);
+      return true;
+    }
+    if (!buffer.offer(event) && !offerOnOverflow(event)) {
+      droppedEvents.incrementAndGet();
+      return false;
+    }
+    acceptedEvents.incrementAndGet();
+    if (shutdown) {
+      // The dispatcher thread may already have exited; don't leave the event stranded
+      drainOnCallingThread();
+    } else if (drainerWaiting) {
+      LockSupport.unpark(drainThread);
+    }
+    return true;
+  }
+
+  private boolean offerOnOverflow(Runnable event) {
+    switch (overflowPolicy) {
+      case DROP_OLDEST:
+        while (!buffer.offer(event)) {
+          if (buffer.poll() != null) {
+            droppedEvents.incrementAndGet();
+            retiredEvents.incrementAndGet();
+          }
+        }
+        return true;
+      case BLOCK:
+        // A logger that logs from the dispatcher thread would wait on itself forever
+        if (Thread.currentThread() == drainThread) {
+          return false;
+        }
+        while (!buffer.offer(event)) {
+          if (shutdown) {
+            return false;
+          }
+          LockSupport.unpark(drainThread);
+          LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+        }
+        return true;
+      case DROP_NEWEST:
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Waits until every event accepted before this call has been delivered, e.g. before the app goes
+   * to the background.
+   *
+   * @return false if the timeout elapsed first
+   */
+  public boolean flush(long timeout, @NonNull TimeUnit unit) {
+    long target = acceptedEvents.get();
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (retiredEvents.get() < target) {
+      if (System.nanoTime() - deadline >= 0) {
+        return false;
+      }
+      LockSupport.unpark(drainThread);
+      LockSupport.parkNanos(this, FLUSH_PARK_NANOS);
+    }
+    return true;
+  }
+
+  /**
+   * Stops accepting events for background delivery. Events already queued are still delivered
+   * before the dispatcher thread exits.
+   */
+  public void shutdown() {
+    shutdown = true;
+    LockSupport.unpark(drainThread);
+  }
+
+  /** Returns the number of events discarded because the buffer was full. */
+  public long getDroppedEventCount() {
+    return droppedEvents.get();
+  }
+
+  /** Returns the number of events handed to their logger by the dispatcher thread. */
+  public long getDeliveredEventCount() {
+    return deliveredEvents.get();
+  }
+
+  /** Returns the number of events waiting to be delivered. */
+  public int getPendingEventCount() {
+    return buffer.size();
+  }
+
+  /** Returns the policy applied when the buffer is full. */
+  @NonNull public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  private void drain() {
+    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+    while (true) {
+      Runnable event = buffer.poll();
+      if (event != null) {
+        deliverQueued(event);
+        continue;
+      }
+      if (shutdown) {
+        return;
+      }
+      drainerWaiting = true;
+      // Re-check after announcing, so an event offered just before the flag was set is not missed
+      if (buffer.isEmpty() && !shutdown) {
+        LockSupport.park(this);
+      }
+      drainerWaiting = false;
+    }
+  }
+
+  private void drainOnCallingThread() {
+    Runnable event;
+    while ((event = buffer.poll()) != null) {
+      deliverQueued(event);
+    }
+  }
+
+  private void deliverQueued(Runnable event) {
+    deliver(event);
+    deliveredEvents.incrementAndGet();
+    retiredEvents.incrementAndGet();
+  }
+
+  private static void deliver(Runnable event) {
+    try {
+      event.run();
+    } catch (Throwable e) {
+      // Errors too: the dispatcher thread is the only one draining the buffer, so if it died,
+      // blocked producers would wait forever and later events would be dropped
+      Log.e(TAG, "Logger threw while handling an event", e);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package cloud.eppo.android.logging;
+
+import androidx.annotation.NonNull;
+import cloud.eppo.logging.Assignment;
+import java.util.List;
+
+/**
+ * Receives assignment events in batches rather than one call per assignment. Wrap in a {@link
+ * BatchingAssignmentLogger} (or pass to a client builder's {@code batchAssignmentLogger}) to
+ * collect events into batches.
+ */
+public interface BatchAssignmentLogger {
+  /**
+   * Called on a background thread with one or more assignments, in the order they were made.
+   *
+   * @param assignments Unmodifiable list of assignments
+   */
+  void logAssignments(@NonNull List<Assignment> assignments);
+}
@@ -0,0 +1,19 @@
+package cloud.eppo.android.logging;
+
+import androidx.annotation.NonNull;
+import cloud.eppo.logging.BanditAssignment;
+import java.util.List;
+
+/**
+ * Receives bandit action events in batches rather than one call per action. Wrap in a {@link
+ * BatchingBanditLogger} (or pass to a client builder's {@code batchBanditLogger}) to collect events
+ * into batches.
+ */
+public interface BatchBanditLogger {
+  /**
+   * Called on a background thread with one or more bandit assignments, in the order they were made.
+   *
+   * @param banditAssignments Unmodifiable list of bandit assignments
+   */
+  void logBanditAssignments(@NonNull List<BanditAssignment> banditAssignments);
+}
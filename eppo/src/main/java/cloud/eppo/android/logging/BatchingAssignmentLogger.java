@@ -0,0 +1,49 @@
+package cloud.eppo.android.logging;
+
+import androidx.annotation.NonNull;
+import cloud.eppo.logging.Assignment;
+import cloud.eppo.logging.AssignmentLogger;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An {@link AssignmentLogger} that collects assignments and forwards them to a {@link
+ * BatchAssignmentLogger} in batches. A batch is sent when it reaches the maximum size, when its
+ * oldest assignment has waited for the maximum latency, or when {@link #flush()} is called, e.g.
+ * from an {@code onStop} lifecycle callback.
+ */
+public final class BatchingAssignmentLogger implements AssignmentLogger {
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+  public static final long DEFAULT_MAX_LATENCY_MS = 10_000;
+
+  private final LogBatcher<Assignment> batcher;
+
+  public BatchingAssignmentLogger(@NonNull BatchAssignmentLogger batchLogger) {
+    this(batchLogger, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_LATENCY_MS);
+  }
+
+  /**
+   * @param batchLogger Receives the batches
+   * @param maxBatchSize Number of assignments that triggers sending a batch
+   * @param maxLatencyMs Longest time an assignment waits before its batch is sent
+   */
+  public BatchingAssignmentLogger(
+      @NonNull BatchAssignmentLogger batchLogger, int maxBatchSize, long maxLatencyMs) {
+    this.batcher = new LogBatcher<>(batchLogger::logAssignments, maxBatchSize, maxLatencyMs);
+  }
+
+  @Override
+  public void logAssignment(Assignment assignment) {
+    batcher.add(assignment);
+  }
+
+  /** Sends all pending assignments; the future completes once the batch logger has returned. */
+  public CompletableFuture<Void> flush() {
+    return batcher.flush();
+  }
+
+  /** Returns the number of assignments waiting for the next batch. */
+  public int getPendingCount() {
+    return batcher.pendingCount();
+  }
+}
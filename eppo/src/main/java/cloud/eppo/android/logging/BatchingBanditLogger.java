@@ -0,0 +1,48 @@
+package cloud.eppo.android.logging;
+
+import androidx.annotation.NonNull;
+import cloud.eppo.logging.BanditAssignment;
+import cloud.eppo.logging.BanditLogger;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link BanditLogger} that collects bandit assignments and forwards them to a {@link
+ * BatchBanditLogger} in batches. A batch is sent when it reaches the maximum size, when its oldest
+ * event has waited for the maximum latency, or when {@link #flush()} is called.
+ */
+public final class BatchingBanditLogger implements BanditLogger {
+
+  public static final int DEFAULT_MAX_BATCH_SIZE = BatchingAssignmentLogger.DEFAULT_MAX_BATCH_SIZE;
+  public static final long DEFAULT_MAX_LATENCY_MS = BatchingAssignmentLogger.DEFAULT_MAX_LATENCY_MS;
+
+  private final LogBatcher<BanditAssignment> batcher;
+
+  public BatchingBanditLogger(@NonNull BatchBanditLogger batchLogger) {
+    this(batchLogger, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_LATENCY_MS);
+  }
+
+  /**
+   * @param batchLogger Receives the batches
+   * @param maxBatchSize Number of events that triggers sending a batch
+   * @param maxLatencyMs Longest time an event waits before its batch is sent
+   */
+  public BatchingBanditLogger(
+      @NonNull BatchBanditLogger batchLogger, int maxBatchSize, long maxLatencyMs) {
+    this.batcher = new LogBatcher<>(batchLogger::logBanditAssignments, maxBatchSize, maxLatencyMs);
+  }
+
+  @Override
+  public void logBanditAssignment(BanditAssignment banditAssignment) {
+    batcher.add(banditAssignment);
+  }
+
+  /** Sends all pending events; the future completes once the batch logger has returned. */
+  public CompletableFuture<Void> flush() {
+    return batcher.flush();
+  }
+
+  /** Returns the number of events waiting for the next batch. */
+  public int getPendingCount() {
+    return batcher.pendingCount();
+  }
+}
@@ -0,0 +1,108 @@
+package cloud.eppo.android.logging;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity, lock-free multi-producer multi-consumer queue (Vyukov's bounded MPMC design).
+ * Every slot carries a sequence number that tells producers and consumers whether it is free or
+ * filled for the current lap, so {@link #offer} and {@link #poll} each need a single CAS on their
+ * own cursor and never block one another.
+ *
+ * @param <E> element type
+ */
+public final class BoundedRingBuffer<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong enqueuePosition = new AtomicLong();
+  private final AtomicLong dequeuePosition = new AtomicLong();
+
+  /**
+   * @param capacity Minimum number of elements the buffer holds; rounded up to a power of two
+   */
+  public BoundedRingBuffer(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    mask = size - 1;
+    elements = new AtomicReferenceArray<>(size);
+    sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /** Returns the number of slots in the buffer. */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /** Adds an element, returning false without waiting if the buffer is full. */
+  public boolean offer(@NonNull E element) {
+    long position = enqueuePosition.get();
+    int index;
+    while (true) {
+      index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (enqueuePosition.compareAndSet(position, position + 1)) {
+          break;
+        }
+        position = enqueuePosition.get();
+      } else if (difference < 0) {
+        // The slot still holds an element from the previous lap
+        return false;
+      } else {
+        // Another producer claimed this slot; catch up
+        position = enqueuePosition.get();
+      }
+    }
+    elements.lazySet(index, element);
+    // Publishes the element to consumers
+    sequences.lazySet(index, position + 1);
+    return true;
+  }
+
+  /** Removes and returns the oldest element, or null if the buffer is empty. */
+  @Nullable public E poll() {
+    long position = dequeuePosition.get();
+    int index;
+    while (true) {
+      index = (int) position & mask;
+      long difference = sequences.get(index) - (position + 1);
+      if (difference == 0) {
+        if (dequeuePosition.compareAndSet(position, position + 1)) {
+          break;
+        }
+        position = dequeuePosition.get();
+      } else if (difference < 0) {
+        // The slot has not been filled for this lap yet
+        return null;
+      } else {
+        position = dequeuePosition.get();
+      }
+    }
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    // Frees the slot for the producer one lap ahead
+    sequences.lazySet(index, position + mask + 1);
+    return element;
+  }
+
+  /** Returns whether the buffer currently holds no elements. Approximate under concurrency. */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** Returns the number of buffered elements. Approximate under concurrency. */
+  public int size() {
+    long size = enqueuePosition.get() - dequeuePosition.get();
+    return (int) Math.max(0, Math.min(size, capacity()));
+  }
+}
@@ -0,0 +1,109 @@
+package cloud.eppo.android.logging;
+
+import static cloud.eppo.android.util.Utils.logTag;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects events and hands them to a sink in batches, once {@code maxBatchSize} events are
+ * pending, {@code maxLatencyMs} after the first pending event, or on {@link #flush()}. Batches are
+ * delivered on a single shared background thread, so a sink sees them in order and never
+ * concurrently.
+ *
+ * @param <T> event type
+ */
+final class LogBatcher<T> {
+
+  private static final String TAG = logTag(LogBatcher.class);
+
+  private static final ScheduledExecutorService DELIVERY_EXECUTOR =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "eppo-log-batcher");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final Consumer<List<T>> sink;
+  private final int maxBatchSize;
+  private final long maxLatencyMs;
+  private final Object lock = new Object();
+
+  private List<T> pending;
+  @Nullable private ScheduledFuture<?> scheduledDelivery;
+
+  LogBatcher(Consumer<List<T>> sink, int maxBatchSize, long maxLatencyMs) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("maxBatchSize must be at least 1");
+    }
+    if (maxLatencyMs < 0) {
+      throw new IllegalArgumentException("maxLatencyMs must not be negative");
+    }
+    this.sink = sink;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLatencyMs = maxLatencyMs;
+    this.pending = new ArrayList<>(maxBatchSize);
+  }
+
+  void add(T event) {
+    boolean full;
+    synchronized (lock) {
+      pending.add(event);
+      full = pending.size() == maxBatchSize;
+      if (!full && scheduledDelivery == null) {
+        scheduledDelivery =
+            DELIVERY_EXECUTOR.schedule(this::deliverPending, maxLatencyMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (full) {
+      DELIVERY_EXECUTOR.execute(this::deliverPending);
+    }
+  }
+
+  /** Delivers all pending events; the returned future completes once the sink has returned. */
+  CompletableFuture<Void> flush() {
+    return CompletableFuture.runAsync(this::deliverPending, DELIVERY_EXECUTOR);
+  }
+
+  /** Returns the number of events waiting for the next batch. */
+  int pendingCount() {
+    synchronized (lock) {
+      return pending.size();
+    }
+  }
+
+  // Only runs on the delivery thread
+  private void deliverPending() {
+    List<T> events;
+    synchronized (lock) {
+      if (scheduledDelivery != null) {
+        scheduledDelivery.cancel(false);
+        scheduledDelivery = null;
+      }
+      if (pending.isEmpty()) {
+        return;
+      }
+      events = pending;
+      pending = new ArrayList<>(maxBatchSize);
+    }
+    // Events added while a size-triggered delivery was queued may exceed one batch
+    for (int start = 0; start < events.size(); start += maxBatchSize) {
+      List<T> batch = events.subList(start, Math.min(events.size(), start + maxBatchSize));
+      try {
+        sink.accept(Collections.unmodifiableList(batch));
+      } catch (Exception e) {
+        Log.e(TAG, "Batch logger threw while handling " + batch.size() + " events", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package cloud.eppo.android.logging;
+
+/** What an {@link AsyncLogDispatcher} does with a new event when its buffer is full. */
+public enum OverflowPolicy {
+  /** Discard the oldest buffered event to make room for the new one. */
+  DROP_OLDEST,
+  /** Discard the new event, keeping everything already buffered. */
+  DROP_NEWEST,
+  /** Wait on the calling thread until the dispatcher frees a slot. */
+  BLOCK
+}
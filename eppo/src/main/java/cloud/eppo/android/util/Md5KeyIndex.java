@@ -0,0 +1,243 @@
+package cloud.eppo.android.util;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-only lookup table keyed by 128-bit MD5 digests. Digests are stored as two longs in parallel
+ * primitive arrays with linear-probing open addressing, avoiding a 32-character hex String (and its
+ * hash code) per key. Lookups can be made straight from raw digest bytes.
+ *
+ * @param <V> value type
+ */
+public final class Md5KeyIndex<V> {
+
+  private static final Md5KeyIndex<?> EMPTY =
+      new Md5KeyIndex<>(new long[1], new long[1], new Object[1], 0);
+
+  private final long[] highBits;
+  private final long[] lowBits;
+  private final Object[] values;
+  private final int mask;
+  private final int size;
+
+  private Md5KeyIndex(long[] highBits, long[] lowBits, Object[] values, int size) {
+    this.highBits = highBits;
+    this.lowBits = lowBits;
+    this.values = values;
+    this.mask = highBits.length - 1;
+    this.size = size;
+  }
+
+  /** Returns an empty index. */
+  @SuppressWarnings("unchecked")
+  public static <V> Md5KeyIndex<V> empty() {
+    return (Md5KeyIndex<V>) EMPTY;
+  }
+
+  /**
+   * Builds an index from a map keyed by 32-character hex MD5 digests. Entries whose keys are not
+   * valid digests, or whose values are null, are skipped.
+   */
+  public static <V> Md5KeyIndex<V> fromHexKeys(@NonNull Map<String, ? extends V> entries) {
+    return fromHexKeys(entries, Function.<V>identity());
+  }
+
+  /**
+   * Builds an index from a map keyed by 32-character hex MD5 digests, transforming each value on
+   * the way in. Entries whose keys are not valid digests, or whose transformed values are null, are
+   * skipped.
+   */
+  public static <S, V> Md5KeyIndex<V> fromHexKeys(
+      @NonNull Map<String, ? extends S> entries, @NonNull Function<? super S, ? extends V> mapper) {
+    if (entries.isEmpty()) {
+      return empty();
+    }
+    int capacity = capacityFor(entries.size());
+    long[] highBits = new long[capacity];
+    long[] lowBits = new long[capacity];
+    Object[] values = new Object[capacity];
+    int inserted = 0;
+    for (Map.Entry<String, ? extends S> entry : entries.entrySet()) {
+      String key = entry.getKey();
+      if (entry.getValue() == null || !isMd5Hex(key)) {
+        continue;
+      }
+      V value = mapper.apply(entry.getValue());
+      if (value == null) {
+        continue;
+      }
+      long high = parseHexLong(key, 0);
+      long low = parseHexLong(key, 16);
+      if (insert(highBits, lowBits, values, high, low, value)) {
+        inserted++;
+      }
+    }
+    return new Md5KeyIndex<>(highBits, lowBits, values, inserted);
+  }
+
+  /**
+   * Returns a copy of this index with entries added, replaced or removed, leaving this index
+   * untouched. Values of changed entries are transformed on the way in, while carried-over values
+   * are copied as they are, so applying a small change to a large index does not transform its
+   * unchanged values again. A changed entry whose transformed value is null removes the key, and
+   * keys that are not valid digests are ignored.
+   */
+  public <S> Md5KeyIndex<V> withChanges(
+      @NonNull Map<String, ? extends S> changed,
+      @NonNull Function<? super S, ? extends V> mapper,
+      @NonNull Collection<String> removed) {
+    if (changed.isEmpty() && removed.isEmpty()) {
+      return this;
+    }
+    Map<String, Boolean> replacedKeys = new HashMap<>();
+    for (String key : changed.keySet()) {
+      replacedKeys.put(key, Boolean.TRUE);
+    }
+    for (String key : removed) {
+      replacedKeys.put(key, Boolean.TRUE);
+    }
+    Md5KeyIndex<Boolean> replaced = fromHexKeys(replacedKeys);
+
+    int capacity = capacityFor(size + changed.size());
+    long[] newHighBits = new long[capacity];
+    long[] newLowBits = new long[capacity];
+    Object[] newValues = new Object[capacity];
+    int inserted = 0;
+    for (Map.Entry<String, ? extends S> entry : changed.entrySet()) {
+      String key = entry.getKey();
+      if (entry.getValue() == null || !isMd5Hex(key)) {
+        continue;
+      }
+      V value = mapper.apply(entry.getValue());
+      if (value != null
+          && insert(
+              newHighBits,
+              newLowBits,
+              newValues,
+              parseHexLong(key, 0),
+              parseHexLong(key, 16),
+              value)) {
+        inserted++;
+      }
+    }
+    for (int slot = 0; slot < values.length; slot++) {
+      Object value = values[slot];
+      if (value != null
+          && replaced.get(highBits[slot], lowBits[slot]) == null
+          && insert(newHighBits, newLowBits, newValues, highBits[slot], lowBits[slot], value)) {
+        inserted++;
+      }
+    }
+    return new Md5KeyIndex<>(newHighBits, newLowBits, newValues, inserted);
+  }
+
+  /** Returns the number of entries in the index. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the value for the digest whose big-endian halves are given, or null if absent. */
+  @SuppressWarnings("unchecked")
+  @Nullable public V get(long high, long low) {
+    if (size == 0) {
+      return null;
+    }
+    for (int slot = slotFor(low, mask); ; slot = (slot + 1) & mask) {
+      Object value = values[slot];
+      if (value == null) {
+        return null;
+      }
+      if (highBits[slot] == high && lowBits[slot] == low) {
+        return (V) value;
+      }
+    }
+  }
+
+  /** Returns the value for the 16-byte digest starting at {@code offset}, or null if absent. */
+  @Nullable public V get(@NonNull byte[] digest, int offset) {
+    return get(readLong(digest, offset), readLong(digest, offset + 8));
+  }
+
+  /** Returns the value for a 32-character hex digest, or null if absent or not a valid digest. */
+  @Nullable public V get(@Nullable String hexKey) {
+    if (!isMd5Hex(hexKey)) {
+      return null;
+    }
+    return get(parseHexLong(hexKey, 0), parseHexLong(hexKey, 16));
+  }
+
+  /** Returns whether the string is a 32-character hex MD5 digest (either case). */
+  public static boolean isMd5Hex(@Nullable String key) {
+    if (key == null || key.length() != ObfuscationUtils.MD5_HEX_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < key.length(); i++) {
+      if (hexValue(key.charAt(i)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Reads 8 bytes starting at {@code offset} as a big-endian long. */
+  public static long readLong(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = 0; i < 8; i++) {
+      result = (result << 8) | (bytes[offset + i] & 0xFFL);
+    }
+    return result;
+  }
+
+  private static long parseHexLong(String hex, int start) {
+    long result = 0;
+    for (int i = start; i < start + 16; i++) {
+      result = (result << 4) | hexValue(hex.charAt(i));
+    }
+    return result;
+  }
+
+  private static int hexValue(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'a' && c <= 'f') {
+      return c - 'a' + 10;
+    }
+    if (c >= 'A' && c <= 'F') {
+      return c - 'A' + 10;
+    }
+    return -1;
+  }
+
+  private static int capacityFor(int entries) {
+    // Keep the load factor at or below 0.5 so probe sequences stay short
+    return Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1;
+  }
+
+  private static boolean insert(
+      long[] highBits, long[] lowBits, Object[] values, long high, long low, Object value) {
+    int mask = values.length - 1;
+    for (int slot = slotFor(low, mask); ; slot = (slot + 1) & mask) {
+      if (values[slot] == null) {
+        highBits[slot] = high;
+        lowBits[slot] = low;
+        values[slot] = value;
+        return true;
+      }
+      if (highBits[slot] == high && lowBits[slot] == low) {
+        // Same digest in two spellings (e.g. upper and lower case hex); keep the first
+        return false;
+      }
+    }
+  }
+
+  private static int slotFor(long low, int mask) {
+    // MD5 output is uniformly distributed, so its low bits are already a good hash
+    return (int) low & mask;
+  }
+}
@@ -1,15 +1,33 @@
 package cloud.eppo.android.util;
 
-import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 /** Utility class for obfuscation operations used in precomputed flag lookups. */
 public final class ObfuscationUtils {
 
+  /** Number of bytes in an MD5 digest. */
+  public static final int MD5_LENGTH = 16;
+
+  /** Number of hex characters in an MD5 digest. */
+  public static final int MD5_HEX_LENGTH = MD5_LENGTH * 2;
+
   /** Pre-computed hex character lookup table for efficient byte-to-hex conversion. */
   private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
+  /**
+   * Per-thread MD5 digest and scratch buffers, so hashing does not look up the MD5 provider or
+   * build intermediate strings on every call.
+   */
+  private static final ThreadLocal<Md5Scratch> SCRATCH =
+      new ThreadLocal<Md5Scratch>() {
+        @Override
+        protected Md5Scratch initialValue() {
+          return new Md5Scratch(newMd5Digest());
+        }
+      };
+
   private ObfuscationUtils() {
     // Prevent instantiation
   }
@@ -22,14 +40,9 @@ public final class ObfuscationUtils {
    * @return 32-character lowercase hexadecimal MD5 hash
    */
   public static String md5Hex(String input, String salt) {
-    String saltedInput = salt != null ? salt + input : input;
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      byte[] digest = md.digest(saltedInput.getBytes(StandardCharsets.UTF_8));
-      return bytesToHex(digest);
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("MD5 algorithm not available", e);
-    }
+    Md5Scratch scratch = SCRATCH.get();
+    digest(scratch, scratch.digest, salt, input, scratch.output, 0);
+    return bytesToHex(scratch.output);
   }
 
   /**
@@ -42,6 +55,34 @@ public final class ObfuscationUtils {
     return md5Hex(input, null);
   }
 
+  /**
+   * Writes the 32 lowercase hex characters of the MD5 hash of salt + input into a caller-supplied
+   * buffer, without allocating a result string.
+   *
+   * @param input The string to hash
+   * @param salt Optional salt to prepend to the input (can be null)
+   * @param out Destination buffer
+   * @param offset Position in {@code out} of the first hex character
+   */
+  public static void md5Hex(String input, String salt, char[] out, int offset) {
+    Md5Scratch scratch = SCRATCH.get();
+    digest(scratch, scratch.digest, salt, input, scratch.output, 0);
+    hexEncode(scratch.output, out, offset);
+  }
+
+  /**
+   * Writes the 16 raw bytes of the MD5 hash of salt + input into a caller-supplied buffer.
+   *
+   * @param input The string to hash
+   * @param salt Optional salt to prepend to the input (can be null)
+   * @param out Destination buffer
+   * @param offset Position in {@code out} of the first digest byte
+   */
+  public static void md5(String input, String salt, byte[] out, int offset) {
+    Md5Scratch scratch = SCRATCH.get();
+    digest(scratch, scratch.digest, salt, input, out, offset);
+  }
+
   /**
    * Generates the first N hex characters of an MD5 hash. More efficient than md5Hex().substring()
    * when only a prefix is needed, as it avoids converting unused bytes.
@@ -52,26 +93,63 @@ public final class ObfuscationUtils {
    * @return First hexLength characters of the MD5 hex hash
    */
   public static String md5HexPrefix(String input, String salt, int hexLength) {
-    if (hexLength <= 0 || hexLength > 32) {
+    if (hexLength <= 0 || hexLength > MD5_HEX_LENGTH) {
       throw new IllegalArgumentException("hexLength must be between 1 and 32");
     }
-    String saltedInput = salt != null ? salt + input : input;
+    Md5Scratch scratch = SCRATCH.get();
+    digest(scratch, scratch.digest, salt, input, scratch.output, 0);
+    // Only convert the bytes we need (2 hex chars per byte)
+    int bytesNeeded = (hexLength + 1) / 2;
+    return bytesToHex(scratch.output, bytesNeeded).substring(0, hexLength);
+  }
+
+  static MessageDigest newMd5Digest() {
     try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      byte[] digest = md.digest(saltedInput.getBytes(StandardCharsets.UTF_8));
-      // Only convert the bytes we need (2 hex chars per byte)
-      int bytesNeeded = (hexLength + 1) / 2;
-      return bytesToHex(digest, bytesNeeded).substring(0, hexLength);
+      return MessageDigest.getInstance("MD5");
     } catch (NoSuchAlgorithmException e) {
       throw new RuntimeException("MD5 algorithm not available", e);
     }
   }
 
+  /** Returns the calling thread's scratch buffers. */
+  static Md5Scratch scratch() {
+    return SCRATCH.get();
+  }
+
+  /**
+   * Hashes salt + input with the given digest (which must be reset) and writes the result into
+   * {@code out}. The digest is reset again afterwards, even if hashing fails part way, so a
+   * thread's reused digest never carries bytes over into its next hash.
+   */
+  static void digest(
+      Md5Scratch scratch, MessageDigest md, String salt, String input, byte[] out, int offset) {
+    try {
+      if (salt != null) {
+        md.update(scratch.utf8, 0, scratch.encodeUtf8(salt));
+      }
+      md.update(scratch.utf8, 0, scratch.encodeUtf8(input));
+      md.digest(out, offset, MD5_LENGTH);
+    } catch (DigestException e) {
+      throw new IllegalArgumentException("Output buffer too small for MD5 digest", e);
+    } finally {
+      md.reset();
+    }
+  }
+
+  /** Writes the 32 hex characters of a 16-byte digest into {@code out} at {@code offset}. */
+  public static void hexEncode(byte[] digest, char[] out, int offset) {
+    for (int i = 0; i < MD5_LENGTH; i++) {
+      int v = digest[i] & 0xFF;
+      out[offset + i * 2] = HEX_DIGITS[v >>> 4];
+      out[offset + i * 2 + 1] = HEX_DIGITS[v & 0x0F];
+    }
+  }
+
   /**
    * Converts a byte array to a hexadecimal string using a pre-computed lookup table. This avoids
    * creating intermediate String objects for each byte (as Integer.toHexString would).
    */
-  private static String bytesToHex(byte[] bytes) {
+  static String bytesToHex(byte[] bytes) {
     return bytesToHex(bytes, bytes.length);
   }
 
@@ -104,4 +182,54 @@ public final class ObfuscationUtils {
     }
     return new String(hexChars);
   }
+
+  /** Per-thread digest and reusable buffers. Must only be used by its owning thread. */
+  static final class Md5Scratch {
+    final MessageDigest digest;
+    final byte[] output = new byte[MD5_LENGTH];
+    byte[] utf8 = new byte[64];
+
+    Md5Scratch(MessageDigest digest) {
+      this.digest = digest;
+    }
+
+    /**
+     * Encodes a string as UTF-8 into {@link #utf8}, growing it if needed, and returns the number of
+     * bytes written. Matches {@code String.getBytes(UTF_8)}, including replacing unpaired
+     * surrogates with '?'.
+     */
+    int encodeUtf8(String s) {
+      int length = s.length();
+      // Worst case is 3 bytes per UTF-16 unit (surrogate pairs take 4 bytes for 2 units)
+      if (utf8.length < length * 3) {
+        utf8 = new byte[Math.max(length * 3, utf8.length * 2)];
+      }
+      byte[] buf = utf8;
+      int pos = 0;
+      for (int i = 0; i < length; i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          buf[pos++] = (byte) c;
+        } else if (c < 0x800) {
+          buf[pos++] = (byte) (0xC0 | (c >> 6));
+          buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int codePoint = Character.toCodePoint(c, s.charAt(++i));
+          buf[pos++] = (byte) (0xF0 | (codePoint >> 18));
+          buf[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+          buf[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+          buf[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          buf[pos++] = (byte) '?';
+        } else {
+          buf[pos++] = (byte) (0xE0 | (c >> 12));
+          buf[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buf[pos++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      return pos;
+    }
+  }
 }
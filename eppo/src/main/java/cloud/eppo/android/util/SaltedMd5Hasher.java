@@ -0,0 +1,88 @@
+package cloud.eppo.android.util;
+
+import androidx.annotation.Nullable;
+import java.security.MessageDigest;
+
+/**
+ * Hashes many inputs under the same salt. Each thread keeps an MD5 digest that has already consumed
+ * the salt bytes, and clones it per input, so neither the MD5 provider lookup nor the salt itself
+ * are repeated per call. Instances are safe to share between threads.
+ */
+public final class SaltedMd5Hasher {
+
+  @Nullable private final String salt;
+  private final ThreadLocal<MessageDigest> primedDigest =
+      new ThreadLocal<MessageDigest>() {
+        @Override
+        @Nullable protected MessageDigest initialValue() {
+          return newPrimedDigest();
+        }
+      };
+
+  public SaltedMd5Hasher(@Nullable String salt) {
+    this.salt = salt;
+  }
+
+  /** Returns the salt prepended to every input, or null if inputs are hashed unsalted. */
+  @Nullable public String getSalt() {
+    return salt;
+  }
+
+  /**
+   * Writes the 16 raw bytes of MD5(salt + input) into {@code out} at {@code offset}.
+   *
+   * @param input The string to hash
+   * @param out Destination buffer
+   * @param offset Position in {@code out} of the first digest byte
+   */
+  public void md5(String input, byte[] out, int offset) {
+    ObfuscationUtils.Md5Scratch scratch = ObfuscationUtils.scratch();
+    MessageDigest primed = primedDigest.get();
+    if (primed == null) {
+      // The provider cannot clone digests; fall back to re-hashing the salt each time
+      ObfuscationUtils.digest(scratch, scratch.digest, salt, input, out, offset);
+      return;
+    }
+    ObfuscationUtils.digest(scratch, clone(primed), null, input, out, offset);
+  }
+
+  /**
+   * Writes the 32 lowercase hex characters of MD5(salt + input) into {@code out} at {@code offset}.
+   */
+  public void md5Hex(String input, char[] out, int offset) {
+    ObfuscationUtils.Md5Scratch scratch = ObfuscationUtils.scratch();
+    md5(input, scratch.output, 0);
+    ObfuscationUtils.hexEncode(scratch.output, out, offset);
+  }
+
+  /** Returns the 32-character lowercase hexadecimal MD5(salt + input). */
+  public String md5Hex(String input) {
+    ObfuscationUtils.Md5Scratch scratch = ObfuscationUtils.scratch();
+    md5(input, scratch.output, 0);
+    return ObfuscationUtils.bytesToHex(scratch.output);
+  }
+
+  @Nullable private MessageDigest newPrimedDigest() {
+    MessageDigest digest = ObfuscationUtils.newMd5Digest();
+    if (salt != null) {
+      ObfuscationUtils.Md5Scratch scratch = ObfuscationUtils.scratch();
+      digest.update(scratch.utf8, 0, scratch.encodeUtf8(salt));
+    }
+    try {
+      // Verify up front that this provider supports cloning
+      digest.clone();
+      return digest;
+    } catch (CloneNotSupportedException e) {
+      return null;
+    }
+  }
+
+  private static MessageDigest clone(MessageDigest primed) {
+    try {
+      return (MessageDigest) primed.clone();
+    } catch (CloneNotSupportedException e) {
+      // Cloning was verified when the primed digest was created
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import cloud.eppo.android.logging.AsyncLogDispatcher;
+import cloud.eppo.android.logging.BoundedRingBuffer;
+import cloud.eppo.android.logging.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class AsyncLogDispatcherTest {
+
+  @Test
+  public void testRingBufferIsFifoAndBounded() {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(3);
+    // Rounded up to a power of two
+    assertEquals(4, buffer.capacity());
+
+    for (int lap = 0; lap < 3; lap++) {
+      for (int i = 0; i < 4; i++) {
+        assertTrue(buffer.offer(i));
+      }
+      assertFalse(buffer.offer(99));
+      assertEquals(4, buffer.size());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(Integer.valueOf(i), buffer.poll());
+      }
+      assertNull(buffer.poll());
+      assertTrue(buffer.isEmpty());
+    }
+  }
+
+  @Test
+  public void testRingBufferConcurrentProducersAndConsumers() throws Exception {
+    BoundedRingBuffer<Integer> buffer = new BoundedRingBuffer<>(64);
+    int producers = 4;
+    int perProducer = 10_000;
+    Set<Integer> consumed = Collections.synchronizedSet(new HashSet<>());
+    CountDownLatch producersDone = new CountDownLatch(producers);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      threads.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < perProducer; i++) {
+                  while (!buffer.offer(base + i)) {
+                    Thread.yield();
+                  }
+                }
+                producersDone.countDown();
+              }));
+    }
+    for (int c = 0; c < 2; c++) {
+      threads.add(
+          new Thread(
+              () -> {
+                while (producersDone.getCount() > 0 || !buffer.isEmpty()) {
+                  Integer value = buffer.poll();
+                  if (value != null) {
+                    assertTrue("Consumed twice: " + value, consumed.add(value));
+                  }
+                }
+              }));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(10_000);
+    }
+
+    assertEquals(producers * perProducer, consumed.size());
+  }
+
+  @Test
+  public void testEventsDeliveredInOrderOnDispatcherThread() {
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(16, OverflowPolicy.BLOCK);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+    AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      dispatcher.dispatch(
+          () -> {
+            deliveryThread.set(Thread.currentThread());
+            delivered.add(value);
+          });
+    }
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(100, delivered.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Integer.valueOf(i), delivered.get(i));
+    }
+    assertNotSame(Thread.currentThread(), deliveryThread.get());
+    assertEquals(100, dispatcher.getDeliveredEventCount());
+    assertEquals(0, dispatcher.getDroppedEventCount());
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testDropNewestKeepsBufferedEvents() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch blockerRunning = new CountDownLatch(1);
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(4, OverflowPolicy.DROP_NEWEST);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    dispatcher.dispatch(blocker(blockerRunning, release));
+    assertTrue(blockerRunning.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 10; i++) {
+      int value = i;
+      dispatcher.dispatch(() -> delivered.add(value));
+    }
+    release.countDown();
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(6, dispatcher.getDroppedEventCount());
+    assertEquals(4, delivered.size());
+    assertEquals(Integer.valueOf(0), delivered.get(0));
+    assertEquals(Integer.valueOf(3), delivered.get(3));
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testDropOldestKeepsNewestEvents() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch blockerRunning = new CountDownLatch(1);
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(4, OverflowPolicy.DROP_OLDEST);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    dispatcher.dispatch(blocker(blockerRunning, release));
+    assertTrue(blockerRunning.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 10; i++) {
+      int value = i;
+      assertTrue(dispatcher.dispatch(() -> delivered.add(value)));
+    }
+    release.countDown();
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(6, dispatcher.getDroppedEventCount());
+    assertEquals(4, delivered.size());
+    assertEquals(Integer.valueOf(6), delivered.get(0));
+    assertEquals(Integer.valueOf(9), delivered.get(3));
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testBlockWaitsForFreeSlot() throws Exception {
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(2, OverflowPolicy.BLOCK);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    for (int i = 0; i < 50; i++) {
+      int value = i;
+      assertTrue(
+          dispatcher.dispatch(
+              () -> {
+                sleepQuietly(1);
+                delivered.add(value);
+              }));
+    }
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(50, delivered.size());
+    assertEquals(0, dispatcher.getDroppedEventCount());
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testLoggerExceptionDoesNotStopDelivery() {
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher();
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    dispatcher.dispatch(
+        () -> {
+          throw new IllegalStateException("logger failure");
+        });
+    dispatcher.dispatch(() -> delivered.add(1));
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(1, delivered.size());
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testLoggerErrorDoesNotStopDelivery() {
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher(2, OverflowPolicy.BLOCK);
+    List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+
+    dispatcher.dispatch(
+        () -> {
+          throw new AssertionError("logger failure");
+        });
+    // More events than slots, so a dead dispatcher thread would leave this producer blocked
+    for (int i = 0; i < 8; i++) {
+      int event = i;
+      dispatcher.dispatch(() -> delivered.add(event));
+    }
+
+    assertTrue(dispatcher.flush(5, TimeUnit.SECONDS));
+    assertEquals(8, delivered.size());
+    assertEquals(9, dispatcher.getDeliveredEventCount());
+    dispatcher.shutdown();
+  }
+
+  @Test
+  public void testEventsAfterShutdownRunOnCallingThread() throws Exception {
+    AsyncLogDispatcher dispatcher = new AsyncLogDispatcher();
+    dispatcher.shutdown();
+    AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+
+    dispatcher.dispatch(() -> deliveryThread.set(Thread.currentThread()));
+
+    assertSame(Thread.currentThread(), deliveryThread.get());
+  }
+
+  private static Runnable blocker(CountDownLatch running, CountDownLatch release) {
+    return () -> {
+      running.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
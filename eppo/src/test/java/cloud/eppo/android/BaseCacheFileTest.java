@@ -0,0 +1,355 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class BaseCacheFileTest {
+
+  private static final String FILE_NAME = "eppo-sdk-test-cache.bin";
+  private static final byte[] COMPRESSIBLE_CONTENTS = repeatedFlags(200);
+
+  private Application application;
+  private BaseCacheFile cacheFile;
+
+  @Before
+  public void setUp() {
+    application = RuntimeEnvironment.getApplication();
+    cacheFile = new BaseCacheFile(application, FILE_NAME);
+    cacheFile.delete();
+  }
+
+  @Test
+  public void testAtomicWriteRoundTripsWithoutFooter() throws IOException {
+    byte[] contents = "{\"flags\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    cacheFile.writeAtomically(contents);
+
+    assertArrayEquals(contents, cacheFile.readBytes());
+    assertEquals(contents.length, cacheFile.mapForRead().remaining());
+    assertFalse(new File(application.getFilesDir(), FILE_NAME + ".tmp").exists());
+  }
+
+  @Test
+  public void testAtomicWriteReplacesPreviousContents() throws IOException {
+    cacheFile.writeAtomically("first, and longer".getBytes(StandardCharsets.UTF_8));
+    cacheFile.writeAtomically("second".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("second", new String(cacheFile.readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testFilesWithoutFooterAreReadAsIs() throws IOException {
+    cacheFile.setContents("{\"legacy\":true}");
+
+    assertEquals("{\"legacy\":true}", new String(cacheFile.readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testCorruptContentsFailChecksum() throws IOException {
+    cacheFile.writeAtomically("{\"flags\":{}}".getBytes(StandardCharsets.UTF_8));
+    try (RandomAccessFile file =
+        new RandomAccessFile(new File(application.getFilesDir(), FILE_NAME), "rw")) {
+      file.seek(2);
+      file.write('X');
+    }
+
+    assertThrows(IOException.class, () -> cacheFile.readBytes());
+  }
+
+  @Test
+  public void testTruncatedFileFailsLengthCheck() throws IOException {
+    cacheFile.writeAtomically("{\"flags\":{}}".getBytes(StandardCharsets.UTF_8));
+    File file = new File(application.getFilesDir(), FILE_NAME);
+    byte[] written = Files.readAllBytes(file.toPath());
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      // Drop a content byte but keep the footer, as a torn in-place write might
+      raf.setLength(0);
+      raf.write(written, 1, written.length - 1);
+    }
+
+    assertThrows(IOException.class, () -> cacheFile.mapForRead());
+  }
+
+  @Test
+  public void testIdenticalWritesAreSkipped() throws IOException {
+    byte[] contents = "{\"flags\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    assertTrue(cacheFile.writeAtomicallyIfChanged(contents));
+    assertFalse(cacheFile.writeAtomicallyIfChanged(contents.clone()));
+    assertTrue(cacheFile.writeAtomicallyIfChanged("{}".getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(1, cacheFile.getSkippedWriteCount());
+  }
+
+  @Test
+  public void testReadSeedsDigestForSkippingWrites() throws IOException {
+    byte[] contents = "{\"flags\":{}}".getBytes(StandardCharsets.UTF_8);
+    cacheFile.writeAtomically(contents);
+
+    BaseCacheFile reopened = new BaseCacheFile(application, FILE_NAME);
+    // Nothing is known about the file until it has been read
+    assertTrue(reopened.writeAtomicallyIfChanged(contents));
+    reopened.readBytes();
+    assertFalse(reopened.writeAtomicallyIfChanged(contents));
+
+    // A deleted file is always rewritten
+    reopened.delete();
+    assertTrue(reopened.writeAtomicallyIfChanged(contents));
+  }
+
+  @Test
+  public void testCompressedWriteRoundTrips() throws IOException {
+    BaseCacheFile compressed = new BaseCacheFile(application, FILE_NAME, 6);
+
+    compressed.writeAtomically(COMPRESSIBLE_CONTENTS);
+
+    File file = new File(application.getFilesDir(), FILE_NAME);
+    assertTrue(file.length() < COMPRESSIBLE_CONTENTS.length / 4);
+    assertArrayEquals(COMPRESSIBLE_CONTENTS, compressed.readBytes());
+    assertEquals(ByteBuffer.wrap(COMPRESSIBLE_CONTENTS), compressed.mapForRead());
+  }
+
+  @Test
+  public void testCompressionSettingDoesNotAffectReads() throws IOException {
+    new BaseCacheFile(application, FILE_NAME, 9).writeAtomically(COMPRESSIBLE_CONTENTS);
+    assertArrayEquals(COMPRESSIBLE_CONTENTS, cacheFile.readBytes());
+
+    cacheFile.writeAtomically(COMPRESSIBLE_CONTENTS);
+    assertArrayEquals(
+        COMPRESSIBLE_CONTENTS, new BaseCacheFile(application, FILE_NAME, 1).readBytes());
+
+    // Files written before compression existed have neither a footer nor a GZIP header
+    cacheFile.setContents("{\"legacy\":true}");
+    assertEquals(
+        "{\"legacy\":true}",
+        new String(
+            new BaseCacheFile(application, FILE_NAME, 6).readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testUnchangedCompressedWritesAreSkipped() throws IOException {
+    BaseCacheFile compressed = new BaseCacheFile(application, FILE_NAME, 6);
+
+    assertTrue(compressed.writeAtomicallyIfChanged(COMPRESSIBLE_CONTENTS));
+    assertFalse(compressed.writeAtomicallyIfChanged(COMPRESSIBLE_CONTENTS.clone()));
+  }
+
+  @Test
+  public void testInvalidCompressionLevelIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class, () -> new BaseCacheFile(application, FILE_NAME, 10));
+  }
+
+  @Test
+  public void testOlderSchemaIsMigratedAndRewritten() throws IOException {
+    cacheFile.writeAtomically("v0".getBytes(StandardCharsets.UTF_8));
+    BaseCacheFile versioned = versionedFile(2);
+
+    assertEquals("v0>1>2", new String(versioned.readBytes(), StandardCharsets.UTF_8));
+    assertTrue(versioned.rewritePendingUpgrade());
+    assertFalse(versioned.rewritePendingUpgrade());
+
+    // Upgraded contents are read back without migrating again
+    BaseCacheFile reopened = versionedFile(2);
+    assertEquals("v0>1>2", new String(reopened.readBytes(), StandardCharsets.UTF_8));
+    assertFalse(reopened.rewritePendingUpgrade());
+
+    // A version 1 file only takes the remaining migration
+    versionedFile(1).writeAtomically("v1".getBytes(StandardCharsets.UTF_8));
+    assertEquals("v1>2", new String(versionedFile(2).readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testWriteClearsPendingUpgrade() throws IOException {
+    cacheFile.writeAtomically("v0".getBytes(StandardCharsets.UTF_8));
+    BaseCacheFile versioned = versionedFile(1);
+    versioned.readBytes();
+
+    versioned.writeAtomically("fresh".getBytes(StandardCharsets.UTF_8));
+
+    assertFalse(versioned.rewritePendingUpgrade());
+    assertEquals("fresh", new String(versioned.readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testNewerSchemaIsRejected() throws IOException {
+    versionedFile(2).writeAtomically("v2".getBytes(StandardCharsets.UTF_8));
+
+    assertThrows(IOException.class, () -> versionedFile(1).readBytes());
+  }
+
+  @Test
+  public void testSchemaHeaderPrecedesCompressedContents() throws IOException {
+    BaseCacheFile versioned =
+        new BaseCacheFile(application, FILE_NAME, 6, 1) {
+          {
+            registerMigration(UNVERSIONED, contents -> contents);
+          }
+        };
+    versioned.writeAtomically(COMPRESSIBLE_CONTENTS);
+
+    assertArrayEquals(COMPRESSIBLE_CONTENTS, versionedFile(1).readBytes());
+  }
+
+  @Test
+  public void testOrphanedConfigFilesAreRemoved() throws IOException {
+    File filesDir = application.getFilesDir();
+    File earlierVersion = new File(filesDir, "eppo-sdk-config-v3-flags-abcdefgh.json");
+    File staleTemp = new File(filesDir, ConfigCacheFile.cacheFileName("other") + ".tmp");
+    File freshTemp = new File(filesDir, ConfigCacheFile.cacheFileName("another") + ".tmp");
+    File unrelated = new File(filesDir, "app-data.json");
+    for (File file : new File[] {earlierVersion, staleTemp, freshTemp, unrelated}) {
+      Files.write(file.toPath(), new byte[] {1});
+    }
+    assertTrue(staleTemp.setLastModified(System.currentTimeMillis() - 2 * 60 * 60 * 1000));
+
+    ConfigCacheFile configCacheFile = new ConfigCacheFile(application, "current");
+    configCacheFile.writeAtomically("{}".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals(2, configCacheFile.removeOrphanedFiles());
+    assertFalse(earlierVersion.exists());
+    assertFalse(staleTemp.exists());
+    assertTrue(freshTemp.exists());
+    assertTrue(unrelated.exists());
+    assertTrue(configCacheFile.exists());
+
+    freshTemp.delete();
+    unrelated.delete();
+    configCacheFile.delete();
+  }
+
+  @Test
+  public void testEarlierFileIsCarriedOverOnceThenDeleted() throws IOException {
+    File earlier = new File(application.getFilesDir(), "eppo-sdk-test-cache-v0.bin");
+    Files.write(earlier.toPath(), "v0".getBytes(StandardCharsets.UTF_8));
+    BaseCacheFile current = fileWithEarlierName(earlier.getName());
+
+    assertTrue(current.exists());
+    assertEquals("v0>1", new String(current.readBytes(), StandardCharsets.UTF_8));
+    // Not orphaned while its contents wait to be written back
+    assertEquals(0, current.removeOrphanedFiles());
+    assertTrue(earlier.exists());
+
+    assertTrue(current.rewritePendingUpgrade());
+    assertFalse(earlier.exists());
+    assertEquals("v0>1", new String(versionedFile(1).readBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testUnreadableEarlierFileFailsReadAndIsRemoved() throws IOException {
+    File earlier = new File(application.getFilesDir(), "eppo-sdk-test-cache-v0.bin");
+    Files.write(earlier.toPath(), "bad".getBytes(StandardCharsets.UTF_8));
+    BaseCacheFile current = fileWithEarlierName(earlier.getName());
+
+    assertThrows(IOException.class, current::readBytes);
+    assertFalse(current.rewritePendingUpgrade());
+    assertEquals(1, current.removeOrphanedFiles());
+    assertFalse(current.exists());
+  }
+
+  /**
+   * Returns a version 1 cache file that carries over an earlier file by appending ">1", rejecting
+   * contents other than "v0", and treats the earlier file as orphaned.
+   */
+  private BaseCacheFile fileWithEarlierName(String earlierName) {
+    return new BaseCacheFile(application, FILE_NAME, BaseCacheFile.COMPRESSION_DISABLED, 1) {
+      {
+        registerMigration(UNVERSIONED, contents -> contents);
+        registerEarlierFile(
+            earlierName,
+            contents -> {
+              String text = new String(contents, StandardCharsets.UTF_8);
+              if (!text.equals("v0")) {
+                throw new IllegalArgumentException("Unreadable contents");
+              }
+              return (text + ">1").getBytes(StandardCharsets.UTF_8);
+            });
+      }
+
+      @Override
+      protected boolean isOrphaned(File file, long nowMs) {
+        return file.getName().equals(earlierName);
+      }
+    };
+  }
+
+  @Test
+  public void testSkippedWriteRefreshesModificationTime() throws IOException {
+    cacheFile.writeAtomically(COMPRESSIBLE_CONTENTS);
+    File file = new File(application.getFilesDir(), FILE_NAME);
+    long longAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40);
+    assertTrue(file.setLastModified(longAgo));
+
+    assertFalse(cacheFile.writeAtomicallyIfChanged(COMPRESSIBLE_CONTENTS));
+    assertTrue(file.lastModified() > longAgo);
+  }
+
+  @Test
+  public void testStalePrecomputedCachesAreRemovedForSameApiKeyOnly() throws IOException {
+    File filesDir = application.getFilesDir();
+    File staleSameKey = new File(filesDir, PrecomputedCacheFile.cacheFileName("key-a-11111111"));
+    File staleOtherKey = new File(filesDir, PrecomputedCacheFile.cacheFileName("key-b-22222222"));
+    File freshSameKey = new File(filesDir, PrecomputedCacheFile.cacheFileName("key-a-33333333"));
+    long longAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40);
+    for (File file : new File[] {staleSameKey, staleOtherKey, freshSameKey}) {
+      Files.write(file.toPath(), new byte[] {1});
+    }
+    assertTrue(staleSameKey.setLastModified(longAgo));
+    assertTrue(staleOtherKey.setLastModified(longAgo));
+
+    PrecomputedCacheFile current = new PrecomputedCacheFile(application, "key-a-44444444");
+
+    assertEquals(1, current.removeOrphanedFiles());
+    assertFalse(staleSameKey.exists());
+    assertTrue(staleOtherKey.exists());
+    assertTrue(freshSameKey.exists());
+
+    staleOtherKey.delete();
+    freshSameKey.delete();
+  }
+
+  /** Returns a cache file at {@code version} whose migrations append the version they reach. */
+  private BaseCacheFile versionedFile(int version) {
+    return new BaseCacheFile(application, FILE_NAME, BaseCacheFile.COMPRESSION_DISABLED, version) {
+      {
+        for (int from = UNVERSIONED; from < version; from++) {
+          String suffix = ">" + (from + 1);
+          registerMigration(
+              from,
+              contents ->
+                  (new String(contents, StandardCharsets.UTF_8) + suffix)
+                      .getBytes(StandardCharsets.UTF_8));
+        }
+      }
+    };
+  }
+
+  private static byte[] repeatedFlags(int count) {
+    StringBuilder json = new StringBuilder("{\"flags\":{");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("\"flag-").append(i).append("\":{\"variationType\":\"STRING\",\"doLog\":true}");
+    }
+    return json.append("}}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,168 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import cloud.eppo.android.logging.BatchingAssignmentLogger;
+import cloud.eppo.android.logging.BatchingBanditLogger;
+import cloud.eppo.api.Attributes;
+import cloud.eppo.logging.Assignment;
+import cloud.eppo.logging.BanditAssignment;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatchingLoggerTest {
+
+  private static final long NEVER_MS = TimeUnit.HOURS.toMillis(1);
+
+  @Test
+  public void testBatchSentWhenFull() throws Exception {
+    List<List<Assignment>> batches = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch received = new CountDownLatch(2);
+    BatchingAssignmentLogger logger =
+        new BatchingAssignmentLogger(
+            assignments -> {
+              batches.add(new ArrayList<>(assignments));
+              received.countDown();
+            },
+            3,
+            NEVER_MS);
+
+    for (int i = 0; i < 7; i++) {
+      logger.logAssignment(assignment(i));
+    }
+
+    // Two full batches are sent without waiting for the latency deadline
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+    logger.flush().get(5, TimeUnit.SECONDS);
+
+    int total = 0;
+    for (List<Assignment> batch : batches) {
+      assertTrue(batch.size() <= 3);
+      total += batch.size();
+    }
+    assertEquals(7, total);
+    assertEquals(3, batches.get(0).size());
+  }
+
+  @Test
+  public void testBatchSentAfterMaxLatency() throws Exception {
+    CountDownLatch received = new CountDownLatch(1);
+    List<Assignment> delivered = Collections.synchronizedList(new ArrayList<>());
+    BatchingAssignmentLogger logger =
+        new BatchingAssignmentLogger(
+            assignments -> {
+              delivered.addAll(assignments);
+              received.countDown();
+            },
+            100,
+            50);
+
+    Assignment first = assignment(0);
+    Assignment second = assignment(1);
+    logger.logAssignment(first);
+    logger.logAssignment(second);
+
+    assertTrue(received.await(5, TimeUnit.SECONDS));
+    assertEquals(2, delivered.size());
+    assertEquals(first, delivered.get(0));
+    assertEquals(second, delivered.get(1));
+    assertEquals(0, logger.getPendingCount());
+  }
+
+  @Test
+  public void testFlushSendsPartialBatch() throws Exception {
+    List<Assignment> delivered = Collections.synchronizedList(new ArrayList<>());
+    BatchingAssignmentLogger logger =
+        new BatchingAssignmentLogger(delivered::addAll, 100, NEVER_MS);
+
+    logger.logAssignment(assignment(0));
+    logger.logAssignment(assignment(1));
+    assertEquals(0, delivered.size());
+
+    logger.flush().get(5, TimeUnit.SECONDS);
+    assertEquals(2, delivered.size());
+
+    // Flushing with nothing pending does not call the logger
+    logger.flush().get(5, TimeUnit.SECONDS);
+    assertEquals(2, delivered.size());
+  }
+
+  @Test
+  public void testLoggerExceptionDoesNotLoseLaterBatches() throws Exception {
+    List<Assignment> delivered = Collections.synchronizedList(new ArrayList<>());
+    boolean[] failNext = {true};
+    BatchingAssignmentLogger logger =
+        new BatchingAssignmentLogger(
+            assignments -> {
+              if (failNext[0]) {
+                failNext[0] = false;
+                throw new IllegalStateException("pipeline unavailable");
+              }
+              delivered.addAll(assignments);
+            },
+            100,
+            NEVER_MS);
+
+    logger.logAssignment(assignment(0));
+    logger.flush().get(5, TimeUnit.SECONDS);
+    logger.logAssignment(assignment(1));
+    logger.flush().get(5, TimeUnit.SECONDS);
+
+    assertEquals(1, delivered.size());
+  }
+
+  @Test
+  public void testBanditBatching() throws Exception {
+    List<List<BanditAssignment>> batches = Collections.synchronizedList(new ArrayList<>());
+    BatchingBanditLogger logger =
+        new BatchingBanditLogger(
+            banditAssignments -> batches.add(new ArrayList<>(banditAssignments)), 2, NEVER_MS);
+
+    for (int i = 0; i < 5; i++) {
+      logger.logBanditAssignment(banditAssignment(i));
+    }
+    logger.flush().get(5, TimeUnit.SECONDS);
+
+    assertEquals(3, batches.size());
+    assertEquals(2, batches.get(0).size());
+    assertEquals(2, batches.get(1).size());
+    assertEquals(1, batches.get(2).size());
+  }
+
+  private static Assignment assignment(int i) {
+    return new Assignment(
+        "flag-" + i + "-allocation",
+        "flag-" + i,
+        "allocation",
+        "variation",
+        "subject",
+        new Attributes(),
+        new HashMap<>(),
+        new HashMap<>());
+  }
+
+  private static BanditAssignment banditAssignment(int i) {
+    return new BanditAssignment(
+        "flag-" + i,
+        "bandit",
+        "subject",
+        "action",
+        0.5,
+        0.1,
+        "v1",
+        new Attributes(),
+        new Attributes(),
+        new Attributes(),
+        new Attributes(),
+        new HashMap<>());
+  }
+}
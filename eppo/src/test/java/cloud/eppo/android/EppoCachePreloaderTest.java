@@ -0,0 +1,92 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class EppoCachePreloaderTest {
+
+  private static final String API_KEY = "preload-api-key";
+  private static final String SUBJECT_KEY = "preload-subject";
+
+  private Application application;
+  private String cacheFileNameSuffix;
+
+  @Before
+  public void setUp() {
+    application = RuntimeEnvironment.getApplication();
+    cacheFileNameSuffix = EppoPrecomputedClient.cacheFileNameSuffix(API_KEY, SUBJECT_KEY);
+    new PrecomputedConfigurationStore(application, cacheFileNameSuffix).deleteCache();
+    CachePreloads.takePrecomputedStore(cacheFileNameSuffix);
+  }
+
+  @Test
+  public void testPreloadReadsCacheOnceUntilTaken()
+      throws ExecutionException, InterruptedException {
+    String json =
+        "{\"format\":\"PRECOMPUTED\",\"salt\":\"preload-salt\",\"flags\":{},\"bandits\":{}}";
+    new PrecomputedConfigurationStore(application, cacheFileNameSuffix)
+        .saveConfiguration(
+            PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8)))
+        .get();
+
+    CompletableFuture<PrecomputedConfigurationResponse> preload =
+        EppoCachePreloader.preloadPrecomputed(application, API_KEY, SUBJECT_KEY);
+    assertSame(preload, EppoCachePreloader.preloadPrecomputed(application, API_KEY, SUBJECT_KEY));
+    assertEquals("preload-salt", preload.get().getSalt());
+
+    PrecomputedConfigurationStore store = CachePreloads.takePrecomputedStore(cacheFileNameSuffix);
+    assertNotNull(store);
+    assertNull(CachePreloads.takePrecomputedStore(cacheFileNameSuffix));
+    // The adopting load shares the preloaded read
+    assertSame(preload, store.loadConfigFromCache());
+    // Once taken, a later preload reads the file again
+    assertNotSame(
+        preload, EppoCachePreloader.preloadPrecomputed(application, API_KEY, SUBJECT_KEY));
+  }
+
+  @Test
+  public void testAdoptedStoreSkipsRewritingPreloadedContents() throws Exception {
+    String json =
+        "{\"format\":\"PRECOMPUTED\",\"salt\":\"preload-salt\",\"flags\":{},\"bandits\":{}}";
+    PrecomputedConfigurationResponse config =
+        PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8));
+    new PrecomputedConfigurationStore(application, cacheFileNameSuffix)
+        .saveConfiguration(config)
+        .get();
+    EppoCachePreloader.preloadPrecomputed(application, API_KEY, SUBJECT_KEY).get();
+
+    PrecomputedConfigurationStore store = CachePreloads.takePrecomputedStore(cacheFileNameSuffix);
+    assertTrue(
+        store.hasSettings(
+            false, BaseCacheFile.COMPRESSION_DISABLED, SdkExecutors.io(), SdkExecutors.cpu()));
+    assertFalse(
+        store.hasSettings(
+            true, BaseCacheFile.COMPRESSION_DISABLED, SdkExecutors.io(), SdkExecutors.cpu()));
+    // The preloaded read recorded the digest of the file, so saving the same contents is skipped
+    store.saveConfiguration(config).get();
+    assertEquals(1, store.getSkippedCacheWriteCount());
+  }
+
+  @Test
+  public void testPreloadWithoutCacheFileCompletesWithNull()
+      throws ExecutionException, InterruptedException {
+    assertNull(EppoCachePreloader.preloadPrecomputed(application, API_KEY, SUBJECT_KEY).get());
+  }
+}
@@ -0,0 +1,231 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.app.Application;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import cloud.eppo.android.util.ObfuscationUtils;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class EppoPrecomputedClientFetchTest {
+
+  private static final String API_KEY = "fetch-test-api-key";
+  private static final String SUBJECT_KEY = "fetch-test-subject";
+  private static final String SALT = "fetch-salt";
+
+  private Application application;
+  private MockWebServer server;
+  private PrecomputedConfigurationStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    application = RuntimeEnvironment.getApplication();
+    store =
+        new PrecomputedConfigurationStore(
+            application,
+            EppoPrecomputedClient.cacheFileNameSuffix(API_KEY, SUBJECT_KEY),
+            false,
+            BaseCacheFile.COMPRESSION_DISABLED,
+            Runnable::run,
+            Runnable::run);
+    store.deleteCache();
+    server = new MockWebServer();
+    server.start();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.shutdown();
+  }
+
+  @Test
+  public void testUnchangedConfigurationIsNotParsedOrSaved() throws InterruptedException {
+    String payload = responseWithValue("dGVzdA==");
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody(payload));
+    EppoPrecomputedClient client = buildClient();
+    PrecomputedConfigurationResponse fetched = store.getConfiguration();
+    assertNull(server.takeRequest().getHeader("If-None-Match"));
+
+    // The server confirms the validator
+    server.enqueue(new MockResponse().setResponseCode(304));
+    client.fetchPrecomputedFlags();
+    assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    assertEquals(1, client.getUnchangedFetchCount());
+    assertSame(fetched, store.getConfiguration());
+
+    // A server that ignores the validator returns the same payload
+    server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody(payload));
+    client.fetchPrecomputedFlags();
+    server.takeRequest();
+    assertEquals(2, client.getUnchangedFetchCount());
+    assertSame(fetched, store.getConfiguration());
+
+    // New contents are installed, and their validator is sent next
+    server.enqueue(
+        new MockResponse().setHeader("ETag", "\"v2\"").setBody(responseWithValue("bmV3")));
+    client.fetchPrecomputedFlags();
+    server.takeRequest();
+    assertEquals(2, client.getUnchangedFetchCount());
+    assertNotSame(fetched, store.getConfiguration());
+    assertEquals("new", client.getStringAssignment("string_flag", "default"));
+
+    server.enqueue(new MockResponse().setResponseCode(304));
+    client.fetchPrecomputedFlags();
+    assertEquals("\"v2\"", server.takeRequest().getHeader("If-None-Match"));
+    assertEquals("new", client.getStringAssignment("string_flag", "default"));
+  }
+
+  @Test
+  public void testNotModifiedKeepsCacheFileFresh() {
+    server.enqueue(
+        new MockResponse().setHeader("ETag", "\"v1\"").setBody(responseWithValue("dGVzdA==")));
+    EppoPrecomputedClient client = buildClient();
+    File cacheFile =
+        new File(
+            application.getFilesDir(),
+            PrecomputedCacheFile.cacheFileName(
+                EppoPrecomputedClient.cacheFileNameSuffix(API_KEY, SUBJECT_KEY)));
+    long longAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(40);
+    assertTrue(cacheFile.setLastModified(longAgo));
+
+    // An unchanged configuration is not saved, but the cache is marked as still in use
+    server.enqueue(new MockResponse().setResponseCode(304));
+    client.fetchPrecomputedFlags();
+
+    assertEquals(1, client.getUnchangedFetchCount());
+    assertTrue(cacheFile.lastModified() > longAgo);
+  }
+
+  @Test
+  public void testNotModifiedWithoutValidatorIsNotCounted() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody(responseWithValue("dGVzdA==")));
+    EppoPrecomputedClient client = buildClient();
+    server.takeRequest();
+
+    // Nothing was sent to validate, so a 304 is not treated as unchanged
+    PrecomputedConfigurationResponse fetched = store.getConfiguration();
+    server.enqueue(new MockResponse().setResponseCode(304));
+    client.fetchPrecomputedFlags();
+    assertNull(server.takeRequest().getHeader("If-None-Match"));
+    assertEquals(0, client.getUnchangedFetchCount());
+    assertSame(fetched, store.getConfiguration());
+  }
+
+  @Test
+  public void testDeltaUpdatesMergeIntoCurrentConfiguration() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody(responseWithValue("dGVzdA==")));
+    EppoPrecomputedClient client = buildClient(true);
+    assertFalse(server.takeRequest().getBody().readUtf8().contains("base_created_at"));
+
+    // Only the changed flag is sent, relative to the reported configuration
+    String otherFlag = ObfuscationUtils.md5Hex("other_flag", SALT);
+    server.enqueue(
+        new MockResponse()
+            .setBody(
+                "{\"format\":\"PRECOMPUTED_DELTA\",\"createdAt\":\"2024-01-21T12:00:00.000Z\","
+                    + "\"baseCreatedAt\":\"2024-01-20T12:00:00.000Z\",\"flags\":{\""
+                    + otherFlag
+                    + "\":{\"variationType\":\"STRING\",\"variationValue\":\"b3RoZXI=\","
+                    + "\"doLog\":false}}}"));
+    client.fetchPrecomputedFlags();
+    assertTrue(
+        server
+            .takeRequest()
+            .getBody()
+            .readUtf8()
+            .contains("\"base_created_at\":\"2024-01-20T12:00:00.000Z\""));
+    assertEquals("2024-01-21T12:00:00.000Z", store.getConfiguration().getCreatedAt());
+    assertEquals("test", client.getStringAssignment("string_flag", "default"));
+    assertEquals("other", client.getStringAssignment("other_flag", "default"));
+
+    // A delta against a configuration the client no longer has triggers a full fetch
+    server.enqueue(
+        new MockResponse()
+            .setBody(
+                "{\"format\":\"PRECOMPUTED_DELTA\",\"createdAt\":\"2024-01-23T12:00:00.000Z\","
+                    + "\"baseCreatedAt\":\"2024-01-22T12:00:00.000Z\",\"removedFlags\":[\""
+                    + otherFlag
+                    + "\"]}"));
+    server.enqueue(new MockResponse().setBody(responseWithValue("bmV3")));
+    client.fetchPrecomputedFlags();
+    server.takeRequest();
+    assertFalse(server.takeRequest().getBody().readUtf8().contains("base_created_at"));
+    assertEquals("new", client.getStringAssignment("string_flag", "default"));
+    assertEquals("default", client.getStringAssignment("other_flag", "default"));
+  }
+
+  @Test
+  public void testStreamedPayloadIsCachedInBinaryFormat() throws IOException {
+    String payload = responseWithValue("dGVzdA==");
+    server.enqueue(new MockResponse().setBody(payload));
+    buildClient();
+
+    PrecomputedCacheFile cacheFile =
+        new PrecomputedCacheFile(
+            application, EppoPrecomputedClient.cacheFileNameSuffix(API_KEY, SUBJECT_KEY));
+    assertArrayEquals(store.getConfiguration().toCacheBytes(), cacheFile.readBytes());
+
+    // A new client fetching the same payload leaves the file alone
+    server.enqueue(new MockResponse().setBody(payload));
+    buildClient();
+    assertEquals(1, store.getSkippedCacheWriteCount());
+  }
+
+  @Test
+  public void testReinitializationReusesConnection() throws InterruptedException {
+    server.enqueue(new MockResponse().setBody(responseWithValue("dGVzdA==")));
+    server.enqueue(new MockResponse().setBody(responseWithValue("bmV3")));
+
+    buildClient();
+    EppoPrecomputedClient reinitialized = buildClient();
+
+    // Requests are numbered per connection, so the second one went over the first's connection
+    assertEquals(0, server.takeRequest().getSequenceNumber());
+    assertEquals(1, server.takeRequest().getSequenceNumber());
+    assertEquals("new", reinitialized.getStringAssignment("string_flag", "default"));
+  }
+
+  private EppoPrecomputedClient buildClient() {
+    return buildClient(false);
+  }
+
+  private EppoPrecomputedClient buildClient(boolean deltaUpdates) {
+    return new EppoPrecomputedClient.Builder(API_KEY, application)
+        .subjectKey(SUBJECT_KEY)
+        .baseUrl("http://" + server.getHostName() + ":" + server.getPort())
+        .configStore(store)
+        .ignoreCachedConfiguration(true)
+        .forceReinitialize(true)
+        .deltaUpdates(deltaUpdates)
+        .cpuExecutor(Runnable::run)
+        .buildAndInit();
+  }
+
+  private static String responseWithValue(String base64Value) {
+    return "{\"format\":\"PRECOMPUTED\",\"obfuscated\":true,"
+        + "\"createdAt\":\"2024-01-20T12:00:00.000Z\",\"salt\":\""
+        + SALT
+        + "\",\"flags\":{\""
+        + ObfuscationUtils.md5Hex("string_flag", SALT)
+        + "\":{\"variationType\":\"STRING\",\"variationValue\":\""
+        + base64Value
+        + "\",\"doLog\":false}},\"bandits\":{}}";
+  }
+}
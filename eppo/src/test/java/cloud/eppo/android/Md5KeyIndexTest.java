@@ -0,0 +1,132 @@
+package cloud.eppo.android;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import cloud.eppo.android.util.Md5KeyIndex;
+import cloud.eppo.android.util.ObfuscationUtils;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class Md5KeyIndexTest {
+
+  @Test
+  public void testEmptyIndex() {
+    Md5KeyIndex<String> index = Md5KeyIndex.fromHexKeys(new HashMap<String, String>());
+    assertEquals(0, index.size());
+    assertNull(index.get(ObfuscationUtils.md5Hex("anything")));
+  }
+
+  @Test
+  public void testLookupByHexAndRawDigest() {
+    Map<String, String> entries = new HashMap<>();
+    for (int i = 0; i < 500; i++) {
+      entries.put(ObfuscationUtils.md5Hex("flag-" + i, "salt"), "value-" + i);
+    }
+
+    Md5KeyIndex<String> index = Md5KeyIndex.fromHexKeys(entries);
+    assertEquals(500, index.size());
+
+    byte[] digest = new byte[ObfuscationUtils.MD5_LENGTH];
+    for (int i = 0; i < 500; i++) {
+      assertEquals("value-" + i, index.get(ObfuscationUtils.md5Hex("flag-" + i, "salt")));
+
+      ObfuscationUtils.md5("flag-" + i, "salt", digest, 0);
+      assertEquals("value-" + i, index.get(digest, 0));
+    }
+
+    ObfuscationUtils.md5("missing-flag", "salt", digest, 0);
+    assertNull(index.get(digest, 0));
+  }
+
+  @Test
+  public void testUppercaseHexKeysMatchDigests() {
+    String hex = ObfuscationUtils.md5Hex("flag", "salt");
+    Map<String, String> entries = new HashMap<>();
+    entries.put(hex.toUpperCase(), "value");
+
+    Md5KeyIndex<String> index = Md5KeyIndex.fromHexKeys(entries);
+    assertEquals("value", index.get(hex));
+  }
+
+  @Test
+  public void testNonDigestKeysAreSkipped() {
+    Map<String, String> entries = new HashMap<>();
+    entries.put("flag1", "skipped");
+    entries.put("zz" + ObfuscationUtils.md5Hex("flag").substring(2), "skipped");
+    entries.put(ObfuscationUtils.md5Hex("flag"), "kept");
+
+    Md5KeyIndex<String> index = Md5KeyIndex.fromHexKeys(entries);
+    assertEquals(1, index.size());
+    assertNull(index.get("flag1"));
+    assertEquals("kept", index.get(ObfuscationUtils.md5Hex("flag")));
+  }
+
+  @Test
+  public void testMapperCanSkipValues() {
+    Map<String, String> entries = new HashMap<>();
+    entries.put(ObfuscationUtils.md5Hex("a"), "1");
+    entries.put(ObfuscationUtils.md5Hex("b"), "not-a-number");
+
+    Md5KeyIndex<Integer> index =
+        Md5KeyIndex.fromHexKeys(
+            entries,
+            value -> {
+              try {
+                return Integer.parseInt(value);
+              } catch (NumberFormatException e) {
+                return null;
+              }
+            });
+    assertEquals(1, index.size());
+    assertEquals(Integer.valueOf(1), index.get(ObfuscationUtils.md5Hex("a")));
+    assertNull(index.get(ObfuscationUtils.md5Hex("b")));
+  }
+
+  @Test
+  public void testWithChangesCopiesUnchangedValues() {
+    Map<String, String> entries = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      entries.put(ObfuscationUtils.md5Hex("flag-" + i), "value-" + i);
+    }
+    Md5KeyIndex<String> index = Md5KeyIndex.fromHexKeys(entries);
+
+    Map<String, String> changed = new HashMap<>();
+    changed.put(ObfuscationUtils.md5Hex("flag-1"), "updated");
+    changed.put(ObfuscationUtils.md5Hex("flag-new"), "added");
+    changed.put(ObfuscationUtils.md5Hex("flag-2"), "dropped-by-mapper");
+    Md5KeyIndex<String> updated =
+        index.withChanges(
+            changed,
+            value -> value.startsWith("dropped") ? null : value.toUpperCase(),
+            Arrays.asList(ObfuscationUtils.md5Hex("flag-3"), "not-a-digest"));
+
+    assertEquals(99, updated.size());
+    assertEquals("UPDATED", updated.get(ObfuscationUtils.md5Hex("flag-1")));
+    assertEquals("ADDED", updated.get(ObfuscationUtils.md5Hex("flag-new")));
+    assertNull(updated.get(ObfuscationUtils.md5Hex("flag-2")));
+    assertNull(updated.get(ObfuscationUtils.md5Hex("flag-3")));
+    // Carried over without going through the mapper
+    assertEquals("value-4", updated.get(ObfuscationUtils.md5Hex("flag-4")));
+
+    // The original index is untouched
+    assertEquals(100, index.size());
+    assertEquals("value-1", index.get(ObfuscationUtils.md5Hex("flag-1")));
+    assertEquals("value-3", index.get(ObfuscationUtils.md5Hex("flag-3")));
+  }
+
+  @Test
+  public void testIsMd5Hex() {
+    assertTrue(Md5KeyIndex.isMd5Hex(ObfuscationUtils.md5Hex("flag")));
+    assertFalse(Md5KeyIndex.isMd5Hex(null));
+    assertFalse(Md5KeyIndex.isMd5Hex("abc"));
+    assertFalse(Md5KeyIndex.isMd5Hex("g" + ObfuscationUtils.md5Hex("flag").substring(1)));
+  }
+}
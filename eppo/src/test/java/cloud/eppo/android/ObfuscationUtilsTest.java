@@ -1,10 +1,14 @@
 package cloud.eppo.android;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 
 import cloud.eppo.android.util.ObfuscationUtils;
+import cloud.eppo.android.util.SaltedMd5Hasher;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
@@ -54,6 +58,18 @@ public class ObfuscationUtilsTest {
     assertEquals(withoutSalt, withNullSalt);
   }
 
+  @Test
+  public void testFailedHashDoesNotLeakSaltIntoNextHash() throws Exception {
+    assertThrows(RuntimeException.class, () -> ObfuscationUtils.md5Hex(null, "salt"));
+
+    // Same thread, so the same reused digest
+    MessageDigest reference = MessageDigest.getInstance("MD5");
+    byte[] expected = reference.digest("saltmy-flag".getBytes(StandardCharsets.UTF_8));
+    byte[] actual = new byte[ObfuscationUtils.MD5_LENGTH];
+    ObfuscationUtils.md5("my-flag", "salt", actual, 0);
+    assertArrayEquals(expected, actual);
+  }
+
   @Test
   public void testMd5HexConsistency() {
     // Same input should always produce same output
@@ -141,4 +157,57 @@ public class ObfuscationUtilsTest {
     String prefix2 = ObfuscationUtils.md5HexPrefix(input, null, 8);
     assertEquals(prefix1, prefix2);
   }
+
+  // Buffer overloads and salted hasher tests
+
+  @Test
+  public void testMd5IntoBufferMatchesMessageDigest() throws Exception {
+    byte[] out = new byte[ObfuscationUtils.MD5_LENGTH + 2];
+    ObfuscationUtils.md5("flag_key", "my-salt", out, 2);
+
+    byte[] expected =
+        MessageDigest.getInstance("MD5").digest("my-saltflag_key".getBytes(StandardCharsets.UTF_8));
+    byte[] actual = new byte[ObfuscationUtils.MD5_LENGTH];
+    System.arraycopy(out, 2, actual, 0, actual.length);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testMd5HexIntoBufferMatchesMd5Hex() {
+    char[] out = new char[ObfuscationUtils.MD5_HEX_LENGTH];
+    ObfuscationUtils.md5Hex("flag_key", "my-salt", out, 0);
+    assertEquals(ObfuscationUtils.md5Hex("flag_key", "my-salt"), new String(out));
+  }
+
+  @Test
+  public void testMd5HexMatchesGetBytesForNonAsciiInput() throws Exception {
+    // Multi-byte characters, a surrogate pair and an unpaired surrogate
+    String[] inputs = {"\u00e9\u00e8", "\u20ac100", "emoji \ud83d\ude00", "broken \ud83d end"};
+    for (String input : inputs) {
+      byte[] expected =
+          MessageDigest.getInstance("MD5")
+              .digest(("salt" + input).getBytes(StandardCharsets.UTF_8));
+      byte[] actual = new byte[ObfuscationUtils.MD5_LENGTH];
+      ObfuscationUtils.md5(input, "salt", actual, 0);
+      assertArrayEquals("Mismatch for input: " + input, expected, actual);
+    }
+  }
+
+  @Test
+  public void testSaltedHasherMatchesMd5Hex() {
+    SaltedMd5Hasher hasher = new SaltedMd5Hasher("my-salt");
+    for (String input : new String[] {"", "flag_key", "another-flag", "flag_key"}) {
+      assertEquals(ObfuscationUtils.md5Hex(input, "my-salt"), hasher.md5Hex(input));
+
+      char[] hex = new char[ObfuscationUtils.MD5_HEX_LENGTH];
+      hasher.md5Hex(input, hex, 0);
+      assertEquals(ObfuscationUtils.md5Hex(input, "my-salt"), new String(hex));
+    }
+  }
+
+  @Test
+  public void testSaltedHasherWithNullSalt() {
+    SaltedMd5Hasher hasher = new SaltedMd5Hasher(null);
+    assertEquals(ObfuscationUtils.md5Hex("test"), hasher.md5Hex("test"));
+  }
 }
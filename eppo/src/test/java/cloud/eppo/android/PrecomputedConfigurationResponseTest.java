@@ -1,15 +1,23 @@
 package cloud.eppo.android;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import cloud.eppo.android.dto.PrecomputedBandit;
+import cloud.eppo.android.dto.PrecomputedConfigurationDelta;
 import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
 import cloud.eppo.android.dto.PrecomputedFlag;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
@@ -230,4 +238,370 @@ public class PrecomputedConfigurationResponseTest {
     assertNull(flag.getExtraLogging());
     assertFalse(flag.isDoLog());
   }
+
+  @Test
+  public void testCacheBytesRoundTrip() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"environment\": { \"name\": \"Production\" },\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"flag1\": {\n"
+            + "      \"allocationKey\": \"YWxsb2NhdGlvbi0x\",\n"
+            + "      \"variationKey\": \"dmFyaWFudC1h\",\n"
+            + "      \"variationType\": \"STRING\",\n"
+            + "      \"variationValue\": \"dGVzdC12YWx1ZQ==\",\n"
+            + "      \"doLog\": true,\n"
+            + "      \"extraLogging\": {\"key\": \"dmFsdWU=\"}\n"
+            + "    },\n"
+            + "    \"flag2\": {\n"
+            + "      \"variationType\": \"boolean\",\n"
+            + "      \"variationValue\": \"dHJ1ZQ==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {\n"
+            + "    \"bandit1\": {\n"
+            + "      \"banditKey\": \"YmFuZGl0LTE=\",\n"
+            + "      \"action\": \"YWN0aW9uLTE=\",\n"
+            + "      \"modelVersion\": \"djEuMA==\",\n"
+            + "      \"actionNumericAttributes\": {\"score\": \"MC41\"},\n"
+            + "      \"actionProbability\": 0.75,\n"
+            + "      \"optimalityGap\": 0.05\n"
+            + "    }\n"
+            + "  }\n"
+            + "}";
+
+    PrecomputedConfigurationResponse original =
+        PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8));
+
+    PrecomputedConfigurationResponse loaded =
+        PrecomputedConfigurationResponse.fromCacheBytes(original.toCacheBytes());
+
+    assertEquals("PRECOMPUTED", loaded.getFormat());
+    assertTrue(loaded.isObfuscated());
+    assertEquals("2024-01-20T12:00:00.000Z", loaded.getCreatedAt());
+    assertEquals("Production", loaded.getEnvironmentName());
+    assertEquals("test-salt", loaded.getSalt());
+
+    PrecomputedFlag flag1 = loaded.getFlags().get("flag1");
+    assertEquals("YWxsb2NhdGlvbi0x", flag1.getAllocationKey());
+    assertEquals("dmFyaWFudC1h", flag1.getVariationKey());
+    assertEquals("STRING", flag1.getVariationType());
+    assertEquals("dGVzdC12YWx1ZQ==", flag1.getVariationValue());
+    assertTrue(flag1.isDoLog());
+    assertEquals("dmFsdWU=", flag1.getExtraLogging().get("key"));
+
+    // Non-canonical type spellings and absent optional fields survive unchanged
+    PrecomputedFlag flag2 = loaded.getFlags().get("flag2");
+    assertEquals("boolean", flag2.getVariationType());
+    assertNull(flag2.getAllocationKey());
+    assertNull(flag2.getVariationKey());
+    assertNull(flag2.getExtraLogging());
+    assertFalse(flag2.isDoLog());
+
+    PrecomputedBandit bandit = loaded.getBandits().get("bandit1");
+    assertEquals("YmFuZGl0LTE=", bandit.getBanditKey());
+    assertEquals("YWN0aW9uLTE=", bandit.getAction());
+    assertEquals("djEuMA==", bandit.getModelVersion());
+    assertEquals("MC41", bandit.getActionNumericAttributes().get("score"));
+    assertNull(bandit.getActionCategoricalAttributes());
+    assertEquals(0.75, bandit.getActionProbability(), 0.0);
+    assertEquals(0.05, bandit.getOptimalityGap(), 0.0);
+  }
+
+  @Test
+  public void testFromCacheBytesReadsLegacyJson() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"legacy-salt\",\n"
+            + "  \"flags\": {},\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+
+    PrecomputedConfigurationResponse response =
+        PrecomputedConfigurationResponse.fromCacheBytes(json.getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("legacy-salt", response.getSalt());
+  }
+
+  @Test
+  public void testFromCacheBufferDecodesDirectBuffer() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"flag1\": {\n"
+            + "      \"variationType\": \"STRING\",\n"
+            + "      \"variationValue\": \"dGVzdA==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    byte[] cacheBytes =
+        PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8))
+            .toCacheBytes();
+    // Direct buffers, like memory-mapped files, have no backing array
+    ByteBuffer direct = ByteBuffer.allocateDirect(cacheBytes.length);
+    direct.put(cacheBytes).flip();
+
+    PrecomputedConfigurationResponse loaded =
+        PrecomputedConfigurationResponse.fromCacheBuffer(direct);
+
+    assertEquals("test-salt", loaded.getSalt());
+    assertEquals("dGVzdA==", loaded.getFlags().get("flag1").getVariationValue());
+  }
+
+  @Test
+  public void testFromCacheBytesRejectsTruncatedBinary() {
+    byte[] cacheBytes = PrecomputedConfigurationResponse.empty().toCacheBytes();
+    byte[] truncated = Arrays.copyOf(cacheBytes, cacheBytes.length - 3);
+
+    assertThrows(
+        RuntimeException.class, () -> PrecomputedConfigurationResponse.fromCacheBytes(truncated));
+  }
+
+  @Test
+  public void testFromStreamSkipsUnknownFieldsAndCoercesScalars() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"unknownObject\": {\"nested\": [1, {\"deeper\": true}]},\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"flag1\": {\n"
+            + "      \"variationType\": \"INTEGER\",\n"
+            + "      \"variationValue\": 42,\n"
+            + "      \"unknownArray\": [\"a\", \"b\"],\n"
+            + "      \"extraLogging\": {\"count\": 3},\n"
+            + "      \"doLog\": true\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": null\n"
+            + "}";
+
+    PrecomputedConfigurationResponse response =
+        PrecomputedConfigurationResponse.fromStream(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals("test-salt", response.getSalt());
+    PrecomputedFlag flag = response.getFlags().get("flag1");
+    assertEquals("42", flag.getVariationValue());
+    assertEquals("3", flag.getExtraLogging().get("count"));
+    assertTrue(flag.isDoLog());
+    assertTrue(response.getBandits().isEmpty());
+  }
+
+  @Test
+  public void testFromBytesRejectsTruncatedJson() {
+    String json = "{\"format\": \"PRECOMPUTED\", \"flags\": {\"flag1\": {\"doLog\": true";
+
+    assertThrows(
+        RuntimeException.class,
+        () -> PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testLazyParsingDecodesRecordsOnFirstAccess() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"flag1\": {\n"
+            + "      \"variationType\": \"STRING\",\n"
+            + "      \"variationValue\": \"dGVzdA==\",\n"
+            + "      \"extraLogging\": {\"key\": \"dmFsdWU=\"},\n"
+            + "      \"doLog\": true\n"
+            + "    },\n"
+            + "    \"flag2\": null\n"
+            + "  },\n"
+            + "  \"bandits\": {\n"
+            + "    \"bandit1\": {\n"
+            + "      \"banditKey\": \"YmFuZGl0LTE=\",\n"
+            + "      \"actionProbability\": 0.75\n"
+            + "    }\n"
+            + "  }\n"
+            + "}";
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+    PrecomputedConfigurationResponse eager = PrecomputedConfigurationResponse.fromBytes(bytes);
+    PrecomputedConfigurationResponse lazy = PrecomputedConfigurationResponse.fromBytes(bytes, true);
+
+    assertFalse(eager.isLazy());
+    assertTrue(lazy.isLazy());
+    assertEquals("test-salt", lazy.getSalt());
+    assertEquals(2, lazy.getFlags().size());
+    assertTrue(lazy.getFlags().containsKey("flag2"));
+    assertNull(lazy.getFlags().get("flag2"));
+    assertNull(lazy.getFlags().get("missing"));
+
+    PrecomputedFlag flag = lazy.getFlags().get("flag1");
+    assertEquals("dGVzdA==", flag.getVariationValue());
+    assertEquals("dmFsdWU=", flag.getExtraLogging().get("key"));
+    assertTrue(flag.isDoLog());
+    // Memoized after the first read
+    assertSame(flag, lazy.getFlags().get("flag1"));
+    assertEquals(0.75, lazy.getBandits().get("bandit1").getActionProbability(), 0.0);
+
+    // Iteration yields the same records in payload order
+    assertArrayEquals(eager.toCacheBytes(), lazy.toCacheBytes());
+  }
+
+  @Test
+  public void testLazyCacheBufferDecodesRecordsOnFirstAccess() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"flag1\": {\n"
+            + "      \"variationType\": \"custom\",\n"
+            + "      \"variationValue\": \"dGVzdA==\",\n"
+            + "      \"doLog\": true\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {\n"
+            + "    \"bandit1\": {\n"
+            + "      \"banditKey\": \"YmFuZGl0LTE=\",\n"
+            + "      \"actionNumericAttributes\": {\"score\": \"MC41\"},\n"
+            + "      \"optimalityGap\": 0.05\n"
+            + "    }\n"
+            + "  }\n"
+            + "}";
+    byte[] cacheBytes =
+        PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8))
+            .toCacheBytes();
+    ByteBuffer direct = ByteBuffer.allocateDirect(cacheBytes.length);
+    direct.put(cacheBytes).flip();
+
+    PrecomputedConfigurationResponse lazy =
+        PrecomputedConfigurationResponse.fromCacheBuffer(direct, true);
+
+    assertTrue(lazy.isLazy());
+    PrecomputedFlag flag = lazy.getFlags().get("flag1");
+    assertEquals("custom", flag.getVariationType());
+    assertEquals("dGVzdA==", flag.getVariationValue());
+    PrecomputedBandit bandit = lazy.getBandits().get("bandit1");
+    assertEquals("MC41", bandit.getActionNumericAttributes().get("score"));
+    assertEquals(0.05, bandit.getOptimalityGap(), 0.0);
+    assertArrayEquals(cacheBytes, lazy.toCacheBytes());
+  }
+
+  @Test
+  public void testLazyCacheBufferRejectsTruncatedBinary() {
+    byte[] cacheBytes =
+        PrecomputedConfigurationResponse.fromBytes(
+                ("{\"salt\": \"s\", \"flags\": {\"flag1\": {\"variationValue\": \"dGVzdA==\"}}}")
+                    .getBytes(StandardCharsets.UTF_8))
+            .toCacheBytes();
+    byte[] truncated = Arrays.copyOf(cacheBytes, cacheBytes.length - 10);
+
+    assertThrows(
+        RuntimeException.class,
+        () -> PrecomputedConfigurationResponse.fromCacheBuffer(ByteBuffer.wrap(truncated), true));
+  }
+
+  @Test
+  public void testDeltaAppliesChangesAndRemovals() {
+    String base =
+        "{\"format\": \"PRECOMPUTED\", \"createdAt\": \"2024-01-20T12:00:00.000Z\","
+            + " \"salt\": \"test-salt\", \"environment\": {\"name\": \"Production\"},"
+            + " \"flags\": {"
+            + "  \"flag1\": {\"variationType\": \"STRING\", \"variationValue\": \"b25l\"},"
+            + "  \"flag2\": {\"variationType\": \"STRING\", \"variationValue\": \"dHdv\"},"
+            + "  \"flag3\": {\"variationType\": \"STRING\", \"variationValue\": \"dGhyZWU=\"}"
+            + " },"
+            + " \"bandits\": {\"bandit1\": {\"banditKey\": \"YjE=\"}}}";
+    String delta =
+        "{\"format\": \"PRECOMPUTED_DELTA\", \"createdAt\": \"2024-01-21T12:00:00.000Z\","
+            + " \"baseCreatedAt\": \"2024-01-20T12:00:00.000Z\", \"salt\": \"test-salt\","
+            + " \"flags\": {"
+            + "  \"flag2\": {\"variationType\": \"STRING\", \"variationValue\": \"bmV3\"},"
+            + "  \"flag4\": {\"variationType\": \"STRING\", \"variationValue\": \"Zm91cg==\"}"
+            + " },"
+            + " \"removedFlags\": [\"flag3\", \"unknown\"],"
+            + " \"removedBandits\": [\"bandit1\"]}";
+
+    for (boolean lazy : new boolean[] {false, true}) {
+      PrecomputedConfigurationResponse baseConfig =
+          PrecomputedConfigurationResponse.fromBytes(base.getBytes(StandardCharsets.UTF_8), lazy);
+      PrecomputedConfigurationResponse parsed =
+          PrecomputedConfigurationResponse.fromBytes(delta.getBytes(StandardCharsets.UTF_8), lazy);
+      assertTrue(parsed instanceof PrecomputedConfigurationDelta);
+      PrecomputedConfigurationDelta deltaConfig = (PrecomputedConfigurationDelta) parsed;
+      assertEquals("2024-01-20T12:00:00.000Z", deltaConfig.getBaseCreatedAt());
+      assertEquals(Arrays.asList("flag3", "unknown"), deltaConfig.getRemovedFlags());
+      assertTrue(deltaConfig.appliesTo(baseConfig));
+
+      PrecomputedConfigurationResponse merged = deltaConfig.applyTo(baseConfig);
+      assertEquals("PRECOMPUTED", merged.getFormat());
+      assertEquals("2024-01-21T12:00:00.000Z", merged.getCreatedAt());
+      assertEquals("Production", merged.getEnvironmentName());
+      assertEquals(lazy, merged.isLazy());
+      assertEquals(3, merged.getFlags().size());
+      assertEquals("b25l", merged.getFlags().get("flag1").getVariationValue());
+      assertEquals("bmV3", merged.getFlags().get("flag2").getVariationValue());
+      assertFalse(merged.getFlags().containsKey("flag3"));
+      assertEquals("Zm91cg==", merged.getFlags().get("flag4").getVariationValue());
+      assertTrue(merged.getBandits().isEmpty());
+
+      // Copy-on-write: the base still serves its own flags
+      assertEquals("dHdv", baseConfig.getFlags().get("flag2").getVariationValue());
+      assertEquals(3, baseConfig.getFlags().size());
+
+      PrecomputedConfigurationResponse reloaded =
+          PrecomputedConfigurationResponse.fromCacheBytes(merged.toCacheBytes());
+      assertEquals(merged.getFlags().keySet(), reloaded.getFlags().keySet());
+      assertEquals("bmV3", reloaded.getFlags().get("flag2").getVariationValue());
+
+      // A second delta folds into the same base instead of stacking
+      String next =
+          "{\"format\": \"PRECOMPUTED_DELTA\", \"createdAt\": \"2024-01-22T12:00:00.000Z\","
+              + " \"baseCreatedAt\": \"2024-01-21T12:00:00.000Z\","
+              + " \"flags\": {\"flag3\": {\"variationValue\": \"YmFjaw==\"}},"
+              + " \"removedFlags\": [\"flag4\"]}";
+      PrecomputedConfigurationDelta nextDelta =
+          (PrecomputedConfigurationDelta)
+              PrecomputedConfigurationResponse.fromBytes(next.getBytes(StandardCharsets.UTF_8));
+      assertFalse(nextDelta.appliesTo(baseConfig));
+      PrecomputedConfigurationResponse again = nextDelta.applyTo(merged);
+      assertEquals(
+          Arrays.asList("flag1", "flag2", "flag3"), new ArrayList<>(again.getFlags().keySet()));
+      assertEquals("YmFjaw==", again.getFlags().get("flag3").getVariationValue());
+    }
+  }
+
+  @Test
+  public void testDeltaRejectsOtherBase() {
+    PrecomputedConfigurationResponse base =
+        PrecomputedConfigurationResponse.fromBytes(
+            "{\"createdAt\": \"2024-01-20T12:00:00.000Z\", \"salt\": \"salt-a\"}"
+                .getBytes(StandardCharsets.UTF_8));
+    PrecomputedConfigurationDelta otherSalt =
+        (PrecomputedConfigurationDelta)
+            PrecomputedConfigurationResponse.fromBytes(
+                ("{\"format\": \"PRECOMPUTED_DELTA\", \"salt\": \"salt-b\","
+                        + " \"baseCreatedAt\": \"2024-01-20T12:00:00.000Z\"}")
+                    .getBytes(StandardCharsets.UTF_8));
+
+    assertFalse(otherSalt.appliesTo(base));
+    assertThrows(IllegalArgumentException.class, () -> otherSalt.applyTo(base));
+  }
 }
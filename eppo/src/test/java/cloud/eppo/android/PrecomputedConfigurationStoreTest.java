@@ -1,17 +1,32 @@
 package cloud.eppo.android;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 import android.app.Application;
 import androidx.annotation.NonNull;
+import cloud.eppo.android.dto.DecodedPrecomputedFlag;
 import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
 import cloud.eppo.android.dto.PrecomputedFlag;
+import cloud.eppo.android.util.ObfuscationUtils;
+import cloud.eppo.ufc.dto.VariationType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -200,6 +215,68 @@ public class PrecomputedConfigurationStoreTest {
     assertNotNull(loaded.getFlags().get("cached-flag"));
   }
 
+  @Test
+  public void testLoadConfigFromLegacyJsonCacheFile()
+      throws ExecutionException, InterruptedException, IOException {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"legacy-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"legacy-flag\": {\n"
+            + "      \"variationType\": \"STRING\",\n"
+            + "      \"variationValue\": \"dGVzdA==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    new PrecomputedCacheFile(application, "test-suffix").setContents(json);
+
+    // Direct executors, so the upgrade after the read is done when the read completes
+    PrecomputedConfigurationResponse loaded =
+        new PrecomputedConfigurationStore(
+                application,
+                "test-suffix",
+                false,
+                BaseCacheFile.COMPRESSION_DISABLED,
+                Runnable::run,
+                Runnable::run)
+            .loadConfigFromCache()
+            .get();
+
+    assertNotNull(loaded);
+    assertEquals("legacy-salt", loaded.getSalt());
+    assertEquals("dGVzdA==", loaded.getFlags().get("legacy-flag").getVariationValue());
+
+    // The file was rewritten in the current schema, so it is not migrated again
+    PrecomputedCacheFile upgraded = new PrecomputedCacheFile(application, "test-suffix");
+    byte[] contents = upgraded.readBytes();
+    assertFalse(upgraded.rewritePendingUpgrade());
+    assertEquals(
+        "legacy-salt", PrecomputedConfigurationResponse.fromCacheBytes(contents).getSalt());
+  }
+
+  @Test
+  public void testSavingUnchangedConfigurationSkipsDiskWrite()
+      throws ExecutionException, InterruptedException {
+    store.saveConfiguration(configWithSalt("salt", "2024-01-20T12:00:00.000Z")).get();
+    store.saveConfiguration(configWithSalt("salt", "2024-01-20T12:00:00.000Z")).get();
+    assertEquals(1, store.getSkippedCacheWriteCount());
+
+    // A store that loaded the cache recognizes the same payload too
+    PrecomputedConfigurationStore newStore =
+        new PrecomputedConfigurationStore(application, "test-suffix");
+    newStore.loadConfigFromCache().get();
+    newStore.saveConfiguration(configWithSalt("salt", "2024-01-20T12:00:00.000Z")).get();
+    assertEquals(1, newStore.getSkippedCacheWriteCount());
+
+    newStore.saveConfiguration(configWithSalt("salt", "2024-01-21T12:00:00.000Z")).get();
+    assertEquals(1, newStore.getSkippedCacheWriteCount());
+  }
+
   @Test
   public void testGetFlagReturnsNullForMissingKey() {
     assertNull(store.getFlag("non-existent-flag"));
@@ -209,4 +286,424 @@ public class PrecomputedConfigurationStoreTest {
   public void testGetBanditReturnsNullForMissingKey() {
     assertNull(store.getBandit("non-existent-bandit"));
   }
+
+  @Test
+  public void testGetHashedKeyReturnsNullWithoutSalt() {
+    assertNull(store.getHashedKey("any-flag"));
+  }
+
+  @Test
+  public void testGetHashedKeyIsMemoizedPerSalt() {
+    store.setConfiguration(configWithSalt("salt-a", "2024-01-20T12:00:00.000Z"));
+
+    String hashedKey = store.getHashedKey("my-flag");
+    assertEquals(ObfuscationUtils.md5Hex("my-flag", "salt-a"), hashedKey);
+    // Misses are memoized as well, so the same instance is handed back
+    assertSame(hashedKey, store.getHashedKey("my-flag"));
+
+    // A new configuration with the same salt keeps the memo
+    store.setConfiguration(configWithSalt("salt-a", "2024-01-21T12:00:00.000Z"));
+    assertSame(hashedKey, store.getHashedKey("my-flag"));
+  }
+
+  @Test
+  public void testGetHashedKeyIsRecomputedWhenSaltChanges()
+      throws ExecutionException, InterruptedException {
+    store.setConfiguration(configWithSalt("salt-a", "2024-01-20T12:00:00.000Z"));
+    assertEquals(ObfuscationUtils.md5Hex("my-flag", "salt-a"), store.getHashedKey("my-flag"));
+
+    store.saveConfiguration(configWithSalt("salt-b", "2024-01-21T12:00:00.000Z")).get();
+    assertEquals(ObfuscationUtils.md5Hex("my-flag", "salt-b"), store.getHashedKey("my-flag"));
+  }
+
+  @Test
+  public void testGetDecodedFlagDecodesTypedValues()
+      throws ExecutionException, InterruptedException {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"int-flag\": {\n"
+            + "      \"allocationKey\": \"YWxsb2NhdGlvbi0x\",\n"
+            + "      \"variationKey\": \"dmFyaWFudC1h\",\n"
+            + "      \"variationType\": \"INTEGER\",\n"
+            + "      \"variationValue\": \"NDI=\",\n"
+            + "      \"extraLogging\": { \"a2V5\": \"dmFsdWU=\" },\n"
+            + "      \"doLog\": true\n"
+            + "    },\n"
+            + "    \"bad-numeric-flag\": {\n"
+            + "      \"variationType\": \"numeric\",\n"
+            + "      \"variationValue\": \"dGVzdA==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+
+    store
+        .saveConfiguration(
+            PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8)))
+        .get();
+
+    DecodedPrecomputedFlag intFlag = store.getDecodedFlag("int-flag");
+    assertNotNull(intFlag);
+    assertEquals(VariationType.INTEGER, intFlag.getVariationType());
+    assertTrue(intFlag.isValueParsed());
+    assertEquals(42, intFlag.getIntValue());
+    assertEquals(42.0, intFlag.getDoubleValue(), 0.0);
+    assertEquals("allocation-1", intFlag.getAllocationKey());
+    assertEquals("variant-a", intFlag.getVariationKey());
+    assertEquals("value", intFlag.getExtraLogging().get("key"));
+    assertTrue(intFlag.isDoLog());
+
+    DecodedPrecomputedFlag badFlag = store.getDecodedFlag("bad-numeric-flag");
+    assertNotNull(badFlag);
+    assertEquals(VariationType.NUMERIC, badFlag.getVariationType());
+    assertFalse(badFlag.isValueParsed());
+    assertEquals("test", badFlag.getStringValue());
+
+    assertNull(store.getDecodedFlag("missing-flag"));
+  }
+
+  @Test
+  public void testJsonValueIsParsedOnceAndCopiedPerRead()
+      throws ExecutionException, InterruptedException {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \"json-flag\": {\n"
+            + "      \"variationType\": \"JSON\",\n"
+            + "      \"variationValue\": \"eyJsYXlvdXQiOiJncmlkIiwiY29sdW1ucyI6WzEsMiwzXX0=\",\n"
+            + "      \"doLog\": false\n"
+            + "    },\n"
+            + "    \"bad-json-flag\": {\n"
+            + "      \"variationType\": \"JSON\",\n"
+            + "      \"variationValue\": \"e25vdCBqc29u\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    store
+        .saveConfiguration(
+            PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8)))
+        .get();
+
+    DecodedPrecomputedFlag flag = store.getDecodedFlag("json-flag");
+    assertNotNull(flag);
+    JsonNode first = flag.getJsonValue();
+    assertNotNull(first);
+    assertEquals("grid", first.get("layout").asText());
+    assertEquals(3, first.get("columns").size());
+
+    // Callers get independent copies, so mutating one cannot affect later reads
+    ((ObjectNode) first).put("layout", "list");
+    JsonNode second = flag.getJsonValue();
+    assertNotSame(first, second);
+    assertEquals("grid", second.get("layout").asText());
+
+    DecodedPrecomputedFlag badFlag = store.getDecodedFlag("bad-json-flag");
+    assertNotNull(badFlag);
+    assertNull(badFlag.getJsonValue());
+    assertNull(badFlag.getJsonValue());
+  }
+
+  @Test
+  public void testLookupByHashedKeyFindsFlagsAndBandits()
+      throws ExecutionException, InterruptedException {
+    String flagHash = ObfuscationUtils.md5Hex("my-flag", "test-salt");
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \""
+            + flagHash
+            + "\": {\n"
+            + "      \"variationType\": \"BOOLEAN\",\n"
+            + "      \"variationValue\": \"dHJ1ZQ==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {\n"
+            + "    \""
+            + flagHash
+            + "\": {\n"
+            + "      \"banditKey\": \"YmFuZGl0\",\n"
+            + "      \"action\": \"YWN0aW9u\",\n"
+            + "      \"modelVersion\": \"djE=\",\n"
+            + "      \"actionProbability\": 0.5,\n"
+            + "      \"optimalityGap\": 0.1\n"
+            + "    }\n"
+            + "  }\n"
+            + "}";
+    store
+        .saveConfiguration(
+            PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8)))
+        .get();
+
+    PrecomputedConfigurationStore.HashedKey hashedKey = store.lookupHashedKey("my-flag");
+    assertNotNull(hashedKey);
+    assertEquals(flagHash, hashedKey.hex);
+
+    DecodedPrecomputedFlag flag = store.getDecodedFlag(hashedKey);
+    assertNotNull(flag);
+    assertTrue(flag.getBooleanValue());
+    assertNotNull(store.getBandit(hashedKey));
+
+    PrecomputedConfigurationStore.HashedKey missingKey = store.lookupHashedKey("other-flag");
+    assertNotNull(missingKey);
+    assertNull(store.getDecodedFlag(missingKey));
+    assertNull(store.getBandit(missingKey));
+  }
+
+  @Test
+  public void testHashedKeyFromReplacedSaltStillFindsFlag() {
+    store.setConfiguration(configWithFlag("salt-a"));
+    PrecomputedConfigurationStore.HashedKey hashedKey = store.lookupHashedKey("my-flag");
+    assertNotNull(hashedKey);
+
+    // The salt changes between hashing the flag key and looking the flag up
+    store.setConfiguration(configWithFlag("salt-b"));
+
+    DecodedPrecomputedFlag flag = store.getDecodedFlag(hashedKey);
+    assertNotNull(flag);
+    assertTrue(flag.getBooleanValue());
+  }
+
+  private static PrecomputedConfigurationResponse configWithFlag(String salt) {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \""
+            + salt
+            + "\",\n"
+            + "  \"flags\": {\n"
+            + "    \""
+            + ObfuscationUtils.md5Hex("my-flag", salt)
+            + "\": {\n"
+            + "      \"variationType\": \"BOOLEAN\",\n"
+            + "      \"variationValue\": \"dHJ1ZQ==\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    return PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testUndecodableFlagThrowsBeforeAndAfterIndexing() {
+    // Holds the background indexing back, so lookups can run before and after it
+    Deque<Runnable> cpuTasks = new ArrayDeque<>();
+    PrecomputedConfigurationStore indexingStore =
+        new PrecomputedConfigurationStore(
+            application,
+            "test-suffix",
+            false,
+            BaseCacheFile.COMPRESSION_DISABLED,
+            Runnable::run,
+            cpuTasks::add);
+    indexingStore.setConfiguration(
+        PrecomputedConfigurationResponse.fromBytes(undecodableFlagPayload()));
+    PrecomputedConfigurationStore.HashedKey hashedKey = indexingStore.lookupHashedKey("my-flag");
+
+    assertThrows(IllegalArgumentException.class, () -> indexingStore.getDecodedFlag(hashedKey));
+    assertEquals(1, cpuTasks.size());
+    cpuTasks.remove().run();
+    assertThrows(IllegalArgumentException.class, () -> indexingStore.getDecodedFlag(hashedKey));
+    assertThrows(IllegalArgumentException.class, () -> indexingStore.getDecodedFlag(hashedKey.hex));
+
+    PrecomputedConfigurationStore lazyStore =
+        new PrecomputedConfigurationStore(application, "test-suffix", true);
+    lazyStore.setConfiguration(lazyStore.parseConfiguration(undecodableFlagPayload()));
+    assertThrows(IllegalArgumentException.class, () -> lazyStore.getDecodedFlag(hashedKey));
+  }
+
+  private static byte[] undecodableFlagPayload() {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \""
+            + ObfuscationUtils.md5Hex("my-flag", "test-salt")
+            + "\": {\n"
+            + "      \"variationType\": \"STRING\",\n"
+            + "      \"variationValue\": \"not*base64\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testLazyStoreDecodesFlagsOnFirstRead()
+      throws ExecutionException, InterruptedException {
+    String flagHash = ObfuscationUtils.md5Hex("my-flag", "test-salt");
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \"2024-01-20T12:00:00.000Z\",\n"
+            + "  \"salt\": \"test-salt\",\n"
+            + "  \"flags\": {\n"
+            + "    \""
+            + flagHash
+            + "\": {\n"
+            + "      \"variationType\": \"INTEGER\",\n"
+            + "      \"variationValue\": \"NDI=\",\n"
+            + "      \"doLog\": false\n"
+            + "    }\n"
+            + "  },\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    PrecomputedConfigurationStore lazyStore =
+        new PrecomputedConfigurationStore(application, "lazy-suffix", true);
+    lazyStore.deleteCache();
+
+    PrecomputedConfigurationResponse config =
+        lazyStore.parseConfiguration(json.getBytes(StandardCharsets.UTF_8));
+    assertTrue(config.isLazy());
+    lazyStore.saveConfiguration(config).get();
+
+    PrecomputedConfigurationStore.HashedKey hashedKey = lazyStore.lookupHashedKey("my-flag");
+    DecodedPrecomputedFlag flag = lazyStore.getDecodedFlag(hashedKey);
+    assertNotNull(flag);
+    assertEquals(42, flag.getIntValue());
+    assertSame(flag, lazyStore.getDecodedFlag(hashedKey));
+    assertSame(flag, lazyStore.getDecodedFlag(flagHash));
+    assertNull(lazyStore.getDecodedFlag(lazyStore.lookupHashedKey("other-flag")));
+
+    // The binary cache is indexed lazily as well when read back
+    PrecomputedConfigurationResponse cached =
+        new PrecomputedConfigurationStore(application, "lazy-suffix", true)
+            .loadConfigFromCache()
+            .get();
+    assertTrue(cached.isLazy());
+    assertEquals("NDI=", cached.getFlags().get(flagHash).getVariationValue());
+  }
+
+  @Test
+  public void testStoreRunsWorkOnProvidedExecutors()
+      throws ExecutionException, InterruptedException {
+    AtomicInteger ioTasks = new AtomicInteger();
+    AtomicInteger cpuTasks = new AtomicInteger();
+    Executor ioExecutor =
+        task -> {
+          ioTasks.incrementAndGet();
+          task.run();
+        };
+    Executor cpuExecutor =
+        task -> {
+          cpuTasks.incrementAndGet();
+          task.run();
+        };
+    PrecomputedConfigurationStore executorStore =
+        new PrecomputedConfigurationStore(
+            application,
+            "test-suffix",
+            false,
+            BaseCacheFile.COMPRESSION_DISABLED,
+            ioExecutor,
+            cpuExecutor);
+
+    executorStore.saveConfiguration(configWithSalt("salt", "2024-01-20T12:00:00.000Z")).get();
+    // Encoding and indexing run on the CPU executor, the write on the I/O executor
+    assertEquals(1, ioTasks.get());
+    assertEquals(2, cpuTasks.get());
+
+    assertNotNull(executorStore.loadConfigFromCache().get());
+    // The read, then the upgrade and cleanup pass after it
+    assertEquals(3, ioTasks.get());
+  }
+
+  @Test
+  public void testSupersededSaveDoesNotOverwriteNewerCacheFile() throws Exception {
+    // Holds writes back so they can run out of order, as they may on a multi-threaded pool
+    Deque<Runnable> ioTasks = new ArrayDeque<>();
+    PrecomputedConfigurationStore orderedStore =
+        new PrecomputedConfigurationStore(
+            application,
+            "test-suffix",
+            false,
+            BaseCacheFile.COMPRESSION_DISABLED,
+            ioTasks::add,
+            Runnable::run);
+    PrecomputedConfigurationResponse older = configWithSalt("salt", "2024-01-20T12:00:00.000Z");
+    PrecomputedConfigurationResponse newer = configWithSalt("salt", "2024-01-20T13:00:00.000Z");
+
+    CompletableFuture<Void> olderSave = orderedStore.saveConfiguration(older);
+    CompletableFuture<Void> newerSave = orderedStore.saveConfiguration(newer);
+    assertEquals(2, ioTasks.size());
+    ioTasks.removeLast().run();
+    ioTasks.removeLast().run();
+    olderSave.get();
+    newerSave.get();
+
+    assertSame(newer, orderedStore.getConfiguration());
+    assertArrayEquals(
+        newer.toCacheBytes(), new PrecomputedCacheFile(application, "test-suffix").readBytes());
+  }
+
+  @Test
+  public void testSavesInstallInCallOrder() throws Exception {
+    // Holds encoding and indexing back so they can run out of order, as they may on the CPU pool
+    Deque<Runnable> cpuTasks = new ArrayDeque<>();
+    PrecomputedConfigurationStore orderedStore =
+        new PrecomputedConfigurationStore(
+            application,
+            "test-suffix",
+            false,
+            BaseCacheFile.COMPRESSION_DISABLED,
+            Runnable::run,
+            cpuTasks::add);
+    PrecomputedConfigurationResponse older = configWithSalt("salt", "2024-01-20T12:00:00.000Z");
+    PrecomputedConfigurationResponse newer = configWithSalt("salt", "2024-01-20T13:00:00.000Z");
+
+    CompletableFuture<Void> olderSave = orderedStore.saveConfiguration(older);
+    CompletableFuture<Void> newerSave = orderedStore.saveConfiguration(newer);
+    assertSame(newer, orderedStore.getConfiguration());
+    while (!cpuTasks.isEmpty()) {
+      cpuTasks.removeLast().run();
+    }
+    olderSave.get();
+    newerSave.get();
+
+    assertSame(newer, orderedStore.getConfiguration());
+    assertArrayEquals(
+        newer.toCacheBytes(), new PrecomputedCacheFile(application, "test-suffix").readBytes());
+  }
+
+  private static PrecomputedConfigurationResponse configWithSalt(String salt, String createdAt) {
+    String json =
+        "{\n"
+            + "  \"format\": \"PRECOMPUTED\",\n"
+            + "  \"obfuscated\": true,\n"
+            + "  \"createdAt\": \""
+            + createdAt
+            + "\",\n"
+            + "  \"salt\": \""
+            + salt
+            + "\",\n"
+            + "  \"flags\": {},\n"
+            + "  \"bandits\": {}\n"
+            + "}";
+    return PrecomputedConfigurationResponse.fromBytes(json.getBytes(StandardCharsets.UTF_8));
+  }
 }
@@ -3,4 +3,5 @@ package cloud.eppo.androidexample;
 public class Constants {
   public static final String INITIAL_SUBJECT_ID = "";
   public static final String INITIAL_FLAG_KEY = "";
+  public static final String STARTUP_SUBJECT_ID = "example-subject";
 }
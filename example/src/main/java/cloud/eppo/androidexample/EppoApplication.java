@@ -1,6 +1,11 @@
 package cloud.eppo.androidexample;
 
+import static cloud.eppo.androidexample.Constants.STARTUP_SUBJECT_ID;
+
 import android.app.Application;
+import android.util.Log;
+import cloud.eppo.android.EppoClient;
+import cloud.eppo.android.EppoPrecomputedClient;
 import com.geteppo.androidexample.BuildConfig;
 
 public class EppoApplication extends Application {
@@ -10,5 +15,26 @@ public class EppoApplication extends Application {
   @Override
   public void onCreate() {
     super.onCreate();
+
+    // Start both clients as early as possible, as a production app would. Their cold-start cost
+    // is what the macrobenchmark module measures.
+    new EppoClient.Builder(API_KEY, this)
+        .buildAndInitAsync()
+        .thenAccept(client -> Log.d(TAG, "Eppo SDK initialized"))
+        .exceptionally(
+            error -> {
+              Log.e(TAG, "Unable to initialize Eppo SDK", error);
+              return null;
+            });
+
+    new EppoPrecomputedClient.Builder(API_KEY, this)
+        .subjectKey(STARTUP_SUBJECT_ID)
+        .buildAndInitAsync()
+        .thenAccept(client -> Log.d(TAG, "Eppo precomputed client initialized"))
+        .exceptionally(
+            error -> {
+              Log.e(TAG, "Unable to initialize Eppo precomputed client", error);
+              return null;
+            });
   }
 }
@@ -36,6 +36,8 @@ public class SecondActivity extends AppCompatActivity {
         .isGracefulMode(
             false) // Note: This is for debugging--stick to default of "true" in production
         .offlineMode(offlineMode)
+        // The application already started a client; rebuild it with this screen's options
+        .forceReinitialize(true)
         .assignmentLogger(
             assignment -> {
               Log.d(
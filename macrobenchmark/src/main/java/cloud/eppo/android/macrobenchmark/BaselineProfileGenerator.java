@@ -0,0 +1,53 @@
+package cloud.eppo.android.macrobenchmark;
+
+import static cloud.eppo.android.macrobenchmark.StartupBenchmark.TARGET_PACKAGE;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Collects the SDK's Baseline Profile by starting the example app (which initializes both clients)
+ * and opening the assignment screen. Run through {@code ./gradlew :eppo:generateBaselineProfile};
+ * the eppo module keeps only the SDK's own rules and those of its parsing dependencies.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+  private static final long UI_TIMEOUT_MS = 5000;
+
+  @Rule public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+  @Test
+  public void generate() {
+    baselineProfileRule.collect(
+        TARGET_PACKAGE,
+        /* maxIterations= */ 15,
+        /* stableIterations= */ 3,
+        /* outputFilePrefix= */ null,
+        /* includeInStartupProfile= */ true,
+        scope -> {
+          scope.pressHome();
+          scope.startActivityAndWait();
+          UiObject2 assignerButton =
+              scope
+                  .getDevice()
+                  .wait(
+                      Until.findObject(By.res(TARGET_PACKAGE, "button_start_assigner")),
+                      UI_TIMEOUT_MS);
+          if (assignerButton != null) {
+            assignerButton.click();
+            scope
+                .getDevice()
+                .wait(Until.hasObject(By.res(TARGET_PACKAGE, "btn_assign")), UI_TIMEOUT_MS);
+          }
+          return Unit.INSTANCE;
+        });
+  }
+}
@@ -0,0 +1,86 @@
+package cloud.eppo.android.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Cold start of the example app, whose {@code Application.onCreate} builds and initializes both
+ * {@code EppoClient} and {@code EppoPrecomputedClient}.
+ *
+ * <p>The cached-configuration case needs a valid {@code cloud.eppo.apiKey} in local.properties and
+ * network access, so the first launch can fetch and persist a configuration.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+  static final String TARGET_PACKAGE = "cloud.eppo.androidexample";
+  private static final int ITERATIONS = 10;
+  // Time allowed for a fetched configuration to be written to the cache file
+  private static final long CACHE_WRITE_WAIT_MS = 5000;
+
+  @Rule public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+  private boolean cachePrimed;
+
+  @Test
+  public void coldStartWithoutCachedConfiguration() {
+    measureColdStart(
+        scope -> {
+          // Wipes the app's files directory, which holds the configuration cache files
+          try {
+            scope.getDevice().executeShellCommand("pm clear " + TARGET_PACKAGE);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return Unit.INSTANCE;
+        });
+  }
+
+  @Test
+  public void coldStartWithCachedConfiguration() {
+    measureColdStart(
+        scope -> {
+          if (!cachePrimed) {
+            scope.startActivityAndWait();
+            sleep(CACHE_WRITE_WAIT_MS);
+            cachePrimed = true;
+          }
+          scope.pressHome();
+          return Unit.INSTANCE;
+        });
+  }
+
+  private void measureColdStart(Function1<MacrobenchmarkScope, Unit> setup) {
+    benchmarkRule.measureRepeated(
+        TARGET_PACKAGE,
+        Collections.singletonList(new StartupTimingMetric()),
+        new CompilationMode.Partial(),
+        StartupMode.COLD,
+        ITERATIONS,
+        setup,
+        scope -> {
+          scope.startActivityAndWait();
+          return Unit.INSTANCE;
+        });
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package cloud.eppo.android;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import cloud.eppo.android.util.Utils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/** Loads the sdk-test-data configurations bundled as test assets (see `make test-data`). */
+final class BenchmarkFixtures {
+
+  private BenchmarkFixtures() {}
+
+  /** Returns the unobfuscated UFC configuration used by the SDK's own instrumented tests. */
+  static byte[] flagsConfig() throws IOException {
+    return readAsset("flags-v1.json");
+  }
+
+  /** Returns the precomputed configuration response wrapped inside precomputed-v1.json. */
+  static byte[] precomputedConfig() throws IOException {
+    JsonNode wrapper = new ObjectMapper().readTree(readAsset("precomputed-v1.json"));
+    return wrapper.get("precomputed").get("response").asText().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] readAsset(String name) throws IOException {
+    Context context = ApplicationProvider.getApplicationContext();
+    try (InputStream inputStream = context.getAssets().open(name)) {
+      return Utils.toByteArray(inputStream);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package cloud.eppo.android;
+
+import android.app.Application;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import cloud.eppo.android.dto.PrecomputedConfigurationResponse;
+import cloud.eppo.api.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Configuration cache reads and writes for both stores. Reads measure a full inflate of the cache
+ * file as done at startup; writes include the hop to the store's background thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CacheFileBenchmark {
+
+  private static final String CACHE_SUFFIX = "microbenchmark";
+
+  @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private ConfigurationStore configurationStore;
+  private PrecomputedConfigurationStore precomputedStore;
+  private Configuration configuration;
+  private PrecomputedConfigurationResponse precomputedConfiguration;
+
+  @Before
+  public void setUp() throws Exception {
+    Application application = ApplicationProvider.getApplicationContext();
+
+    configurationStore = new ConfigurationStore(application, CACHE_SUFFIX);
+    configuration = new Configuration.Builder(BenchmarkFixtures.flagsConfig()).build();
+    configurationStore.saveConfiguration(configuration).get();
+
+    precomputedStore = new PrecomputedConfigurationStore(application, CACHE_SUFFIX);
+    precomputedConfiguration =
+        PrecomputedConfigurationResponse.fromBytes(BenchmarkFixtures.precomputedConfig());
+    precomputedStore.saveConfiguration(precomputedConfiguration).get();
+  }
+
+  @Test
+  public void configurationStore_readCacheFile() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      configurationStore.readCacheFile();
+    }
+  }
+
+  @Test
+  public void precomputedStore_readCacheFile() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      precomputedStore.readCacheFile();
+    }
+  }
+
+  @Test
+  public void precomputedStore_saveConfiguration() throws Exception {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      precomputedStore.saveConfiguration(precomputedConfiguration).get();
+    }
+  }
+}
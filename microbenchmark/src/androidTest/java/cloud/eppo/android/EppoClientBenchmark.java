@@ -0,0 +1,81 @@
+package cloud.eppo.android;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import cloud.eppo.api.Attributes;
+import cloud.eppo.api.EppoValue;
+import cloud.eppo.ufc.dto.VariationType;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Flag evaluation through {@link EppoClient#getTypedAssignment}, one benchmark per variation type.
+ * The client is initialized offline from flags-v1.json and has no assignment logger, so only
+ * evaluation is measured.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EppoClientBenchmark {
+
+  @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private EppoClient client;
+  private Attributes subjectAttributes;
+
+  @Before
+  public void setUp() throws Exception {
+    client =
+        new EppoClient.Builder(
+                "microbenchmark-api-key", ApplicationProvider.getApplicationContext())
+            .offlineMode(true)
+            .forceReinitialize(true)
+            .ignoreCachedConfiguration(true)
+            .initialConfiguration(BenchmarkFixtures.flagsConfig())
+            .buildAndInitAsync()
+            .get();
+    subjectAttributes = new Attributes();
+    subjectAttributes.put("country", EppoValue.valueOf("US"));
+    subjectAttributes.put("email", EppoValue.valueOf("alice@example.com"));
+    subjectAttributes.put("age", EppoValue.valueOf(30));
+  }
+
+  @Test
+  public void getTypedAssignment_boolean() {
+    measure("kill-switch", EppoValue.valueOf(false), VariationType.BOOLEAN);
+  }
+
+  @Test
+  public void getTypedAssignment_integer() {
+    measure("integer-flag", EppoValue.valueOf(0), VariationType.INTEGER);
+  }
+
+  @Test
+  public void getTypedAssignment_numeric() {
+    measure("numeric_flag", EppoValue.valueOf(0.0), VariationType.NUMERIC);
+  }
+
+  @Test
+  public void getTypedAssignment_string() {
+    measure("new-user-onboarding", EppoValue.valueOf("default"), VariationType.STRING);
+  }
+
+  @Test
+  public void getTypedAssignment_json() {
+    measure("json-config-flag", EppoValue.valueOf("{}"), VariationType.JSON);
+  }
+
+  @Test
+  public void getTypedAssignment_missingFlag() {
+    measure("not-in-config", EppoValue.valueOf(false), VariationType.BOOLEAN);
+  }
+
+  private void measure(String flagKey, EppoValue defaultValue, VariationType type) {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getTypedAssignment(flagKey, "alice", subjectAttributes, defaultValue, type);
+    }
+  }
+}
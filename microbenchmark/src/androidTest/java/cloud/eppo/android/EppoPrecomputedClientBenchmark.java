@@ -0,0 +1,88 @@
+package cloud.eppo.android;
+
+import android.app.Application;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Typed getters of {@link EppoPrecomputedClient}, initialized offline from precomputed-v1.json with
+ * no assignment logger, so only the lookup path is measured.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EppoPrecomputedClientBenchmark {
+
+  @Rule public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+  private EppoPrecomputedClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    Application application = ApplicationProvider.getApplicationContext();
+    client =
+        new EppoPrecomputedClient.Builder("microbenchmark-api-key", application)
+            .subjectKey("test-subject-key")
+            .offlineMode(true)
+            .forceReinitialize(true)
+            .ignoreCachedConfiguration(true)
+            .initialConfiguration(BenchmarkFixtures.precomputedConfig())
+            .buildAndInitAsync()
+            .get();
+  }
+
+  @Test
+  public void getStringAssignment() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getStringAssignment("string-flag", "default");
+    }
+  }
+
+  @Test
+  public void getBooleanAssignment() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getBooleanAssignment("boolean-flag", false);
+    }
+  }
+
+  @Test
+  public void getIntegerAssignment() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getIntegerAssignment("integer-flag", 0);
+    }
+  }
+
+  @Test
+  public void getNumericAssignment() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getNumericAssignment("numeric-flag", 0.0);
+    }
+  }
+
+  @Test
+  public void getJSONAssignment() {
+    JsonNode defaultValue = NullNode.getInstance();
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getJSONAssignment("json-flag", defaultValue);
+    }
+  }
+
+  @Test
+  public void getStringAssignment_missingFlag() {
+    BenchmarkState state = benchmarkRule.getState();
+    while (state.keepRunning()) {
+      client.getStringAssignment("non-existent-flag", "default");
+    }
+  }
+}